@@ -0,0 +1,92 @@
+package com.example.Cambo_MarketPlace.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.mockito.Mockito;
+
+import com.example.Cambo_MarketPlace.DTO.ChatRoomMembership;
+import com.example.Cambo_MarketPlace.Models.ChatRoom;
+import com.example.Cambo_MarketPlace.Models.Message;
+import com.example.Cambo_MarketPlace.Models.Product;
+import com.example.Cambo_MarketPlace.Models.User;
+import com.example.Cambo_MarketPlace.Repository.ChatRoomRepository;
+import com.example.Cambo_MarketPlace.Repository.UserRepository;
+import com.example.Cambo_MarketPlace.Security.JwtUtil;
+import com.example.Cambo_MarketPlace.Service.ChatMembershipCache;
+
+/**
+ * Deterministic in-memory entities shared by the benchmarks, so runs are comparable across machines and commits
+ */
+final class BenchmarkFixtures {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 11, 10, 30, 0);
+
+    // Fixed 256-bit signing key so every JwtUtil in a run verifies the others' tokens
+    static final String JWT_KEYS = "bench:" + Base64.getEncoder().encodeToString(new byte[32]);
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtil jwtUtil(long claimsCacheMaxSize) {
+        return new JwtUtil(JWT_KEYS, "bench", 15, claimsCacheMaxSize);
+    }
+
+    static User user(long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setRole("USER");
+        user.setCreatedAt(NOW);
+        return user;
+    }
+
+    static Product product(long id, User seller) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("iPhone 14 Pro 256GB");
+        product.setDescription("Barely used, excellent condition, comes with original box, case and charger.");
+        product.setPrice(899.99);
+        product.setStatus("AVAILABLE");
+        product.setCreatedAt(NOW);
+        product.setSeller(seller);
+        return product;
+    }
+
+    static ChatRoom chatRoom(long id, Product product, User buyer, User seller) {
+        ChatRoom room = new ChatRoom();
+        room.setId(id);
+        room.setProduct(product);
+        room.setBuyer(buyer);
+        room.setSeller(seller);
+        room.setCreatedAt(NOW);
+        return room;
+    }
+
+    static Message message(long id, ChatRoom room, User sender) {
+        Message message = new Message();
+        message.setId(id);
+        message.setChatRoom(room);
+        message.setSender(sender);
+        message.setContent("Is this still available? I can pick it up this afternoon.");
+        message.setSentAt(NOW);
+        return message;
+    }
+
+    // Cache backed by stub repositories; after the first call every lookup is a hit
+    static ChatMembershipCache membershipCache(ChatRoom room) {
+        ChatRoomRepository chatRoomRepository = Mockito.mock(ChatRoomRepository.class);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(chatRoomRepository.findMembershipById(room.getId())).thenReturn(Optional.of(
+                new ChatRoomMembership(room.getId(), room.getBuyer().getId(), room.getSeller().getId(),
+                        room.getProduct().getId())));
+        Mockito.when(userRepository.findUsernameById(room.getBuyer().getId()))
+                .thenReturn(Optional.of(room.getBuyer().getUsername()));
+        Mockito.when(userRepository.findUsernameById(room.getSeller().getId()))
+                .thenReturn(Optional.of(room.getSeller().getUsername()));
+        return new ChatMembershipCache(chatRoomRepository, userRepository, 1_000, 1_000, 30);
+    }
+}
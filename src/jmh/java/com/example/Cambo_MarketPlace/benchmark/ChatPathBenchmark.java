@@ -0,0 +1,137 @@
+package com.example.Cambo_MarketPlace.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Cambo_MarketPlace.Controller.ChatRoomController;
+import com.example.Cambo_MarketPlace.DTO.ChatMessageDTO;
+import com.example.Cambo_MarketPlace.DTO.ChatRoomSummaryDTO;
+import com.example.Cambo_MarketPlace.DTO.CursorPageDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO;
+import com.example.Cambo_MarketPlace.Models.ChatRoom;
+import com.example.Cambo_MarketPlace.Models.Message;
+import com.example.Cambo_MarketPlace.Models.Product;
+import com.example.Cambo_MarketPlace.Models.User;
+import com.example.Cambo_MarketPlace.Service.ChatService;
+import com.example.Cambo_MarketPlace.Service.ProductJsonWriter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * CPU cost of the chat hot paths once data is in memory: building DTOs and
+ * response maps, and serializing them the way the REST and STOMP layers do
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class ChatPathBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private ChatService chatService;
+    private ChatRoomController chatRoomController;
+    private Message message;
+    private ChatMessageDTO messageDTO;
+    private Product product;
+    private ChatRoom room;
+    private List<Product> productEntities;
+    private CursorPageDTO<ProductSummaryDTO> productPage;
+    private ProductJsonWriter productJsonWriter;
+
+    @Setup
+    public void setup() {
+        User seller = BenchmarkFixtures.user(1, "alice");
+        User buyer = BenchmarkFixtures.user(2, "bob");
+        product = BenchmarkFixtures.product(1, seller);
+        room = BenchmarkFixtures.chatRoom(1, product, buyer, seller);
+        message = BenchmarkFixtures.message(1, room, buyer);
+
+        chatService = new ChatService();
+        ReflectionTestUtils.setField(chatService, "chatMembershipCache", BenchmarkFixtures.membershipCache(room));
+        messageDTO = chatService.convertToDTO(message);
+
+        ChatService stubService = Mockito.mock(ChatService.class);
+        Mockito.when(stubService.getChatRoom(room.getId())).thenReturn(Optional.of(room));
+        ProductSummaryDTO summary = new ProductSummaryDTO(product.getId(), product.getTitle(), product.getPrice(),
+                product.getStatus(), product.getCreatedAt(), seller.getId(), seller.getUsername());
+        productEntities = Collections.nCopies(20, product);
+        productPage = new CursorPageDTO<>(Collections.nCopies(20, summary), "cursor", true);
+        productJsonWriter = new ProductJsonWriter(jsonMapper);
+
+        chatRoomController = new ChatRoomController();
+        ReflectionTestUtils.setField(chatRoomController, "chatService", stubService);
+        ReflectionTestUtils.setField(chatRoomController, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public ChatMessageDTO convertToDTO() {
+        return chatService.convertToDTO(message);
+    }
+
+    @Benchmark
+    public byte[] serializeChatMessageDTO() {
+        return jsonMapper.writeValueAsBytes(messageDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeProductEntity() {
+        return jsonMapper.writeValueAsBytes(product);
+    }
+
+    // Catalog page of 20 items: entities (old response) vs. projection DTOs vs. the streaming writer
+    @Benchmark
+    public byte[] catalogPageEntities() {
+        return jsonMapper.writeValueAsBytes(new CursorPageDTO<>(productEntities, "cursor", true));
+    }
+
+    @Benchmark
+    public byte[] catalogPageDTO() {
+        return jsonMapper.writeValueAsBytes(productPage);
+    }
+
+    @Benchmark
+    public byte[] catalogPageStreamingWriter() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        productJsonWriter.writeCatalogPage(productPage, out);
+        return out.toByteArray();
+    }
+
+    // ChatRoomController.getChatRoom: nested HashMaps built per request, then serialized
+    @Benchmark
+    public byte[] chatRoomDetailsHashMaps() {
+        ResponseEntity<?> response = chatRoomController.getChatRoom(room.getId());
+        return jsonMapper.writeValueAsBytes(response.getBody());
+    }
+
+    // Same information as an inbox row built from the projection DTO
+    @Benchmark
+    public byte[] chatRoomSummaryDTO() {
+        ChatRoomSummaryDTO dto = new ChatRoomSummaryDTO(room.getId(),
+                room.getBuyer().getId(), room.getBuyer().getUsername(),
+                room.getSeller().getId(), room.getSeller().getUsername(),
+                product.getId(), product.getTitle(),
+                message.getContent(), message.getSentAt(), message.getSender().getId(), 3L);
+        return jsonMapper.writeValueAsBytes(dto);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.Cambo_MarketPlace.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Requests per second for a connection-per-request workload: some blocking I/O outside
+ * the database (token checks, remote calls), then one pooled JDBC round trip.
+ * "platform" mirrors Tomcat's default 200-thread pool; "virtual" is one virtual thread
+ * per request, optionally behind the same admission limit as JdbcConcurrencyGuardFilter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class ConnectionPerRequestBenchmark {
+
+    private static final int REQUESTS = 2000;
+    private static final int POOL_SIZE = 20;
+    private static final int REQUESTS_PER_CONNECTION = 4;
+
+    @Param({"platform", "virtual", "virtual-guarded"})
+    public String threading;
+
+    // Blocking time outside / inside the borrowed connection
+    @Param({"5"})
+    public long ioMillis;
+
+    @Param({"1"})
+    public long queryMillis;
+
+    private HikariDataSource dataSource;
+    private ExecutorService executor;
+    private Semaphore guard;
+
+    @Setup
+    public void setup() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setMinimumIdle(POOL_SIZE);
+        config.setConnectionTimeout(5000);
+        dataSource = new HikariDataSource(config);
+
+        executor = threading.equals("platform")
+                ? Executors.newFixedThreadPool(200)
+                : Executors.newVirtualThreadPerTaskExecutor();
+        guard = threading.equals("virtual-guarded")
+                ? new Semaphore(POOL_SIZE * REQUESTS_PER_CONNECTION, true)
+                : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int requests() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(this::handleRequest));
+        }
+        int sum = 0;
+        for (Future<Integer> future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+
+    private int handleRequest() throws InterruptedException, SQLException {
+        if (guard != null) {
+            guard.acquire();
+        }
+        try {
+            Thread.sleep(ioMillis);
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+                Thread.sleep(queryMillis);
+                return 1;
+            }
+        } finally {
+            if (guard != null) {
+                guard.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.Cambo_MarketPlace.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.Cambo_MarketPlace.Security.JwtAuthenticationFilter;
+import com.example.Cambo_MarketPlace.Security.JwtUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Full per-request cost of JwtAuthenticationFilter for an authenticated API call
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        JwtUtil cached = BenchmarkFixtures.jwtUtil(10_000);
+        cachedFilter = new JwtAuthenticationFilter(cached, new SimpleMeterRegistry());
+        uncachedFilter = new JwtAuthenticationFilter(BenchmarkFixtures.jwtUtil(0), new SimpleMeterRegistry());
+        authorization = "Bearer " + cached.generateToken("alice@example.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public int filterCached() throws Exception {
+        return filter(cachedFilter);
+    }
+
+    @Benchmark
+    public int filterUncached() throws Exception {
+        return filter(uncachedFilter);
+    }
+
+    private int filter(JwtAuthenticationFilter filter) throws Exception {
+        // A fresh request each time: OncePerRequestFilter skips requests it has already seen
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
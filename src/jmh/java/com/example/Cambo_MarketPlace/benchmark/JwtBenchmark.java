@@ -0,0 +1,56 @@
+package com.example.Cambo_MarketPlace.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.Cambo_MarketPlace.Security.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Token issue and verification cost, with and without the claims cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setup() {
+        uncached = BenchmarkFixtures.jwtUtil(0);
+        cached = BenchmarkFixtures.jwtUtil(10_000);
+        token = cached.generateToken("alice@example.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken("alice@example.com", "ROLE_USER");
+    }
+
+    @Benchmark
+    public Claims parseClaimsUncached() {
+        return uncached.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseClaimsCached() {
+        return cached.parseClaims(token);
+    }
+}
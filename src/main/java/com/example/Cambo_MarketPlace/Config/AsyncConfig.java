@@ -0,0 +1,14 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables @Async on Spring Boot's applicationTaskExecutor. With
+ * spring.threads.virtual.enabled=true that executor runs each task on a virtual
+ * thread, capped by spring.task.execution.simple.concurrency-limit.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
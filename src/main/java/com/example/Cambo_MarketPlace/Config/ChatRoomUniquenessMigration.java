@@ -0,0 +1,89 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * One-off migration behind chat room de-duplication. ddl-auto=update cannot add
+ * uk_chat_rooms_product_buyer_seller to a database that already holds duplicate
+ * rooms (it only logs the failed ALTER), and without the constraint the upsert in
+ * ChatRoomRepository prevents nothing. So before the application serves requests,
+ * duplicates are merged into the oldest room of each (product, buyer, seller):
+ * their messages are moved over, read markers keep the furthest position, and the
+ * constraint is added, all in one transaction. Runs once; a failure stops startup.
+ */
+@Component
+public class ChatRoomUniquenessMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRoomUniquenessMigration.class);
+
+    static final String CONSTRAINT = "uk_chat_rooms_product_buyer_seller";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // EntityManagerFactory is injected so the tables exist (ddl-auto) before migrating
+    public ChatRoomUniquenessMigration(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void migrate() {
+        if (constraintExists()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Keeps other instances from creating rooms until the constraint is in place
+            jdbcTemplate.execute("LOCK TABLE chat_rooms IN SHARE ROW EXCLUSIVE MODE");
+            if (constraintExists()) {
+                return;
+            }
+            jdbcTemplate.execute("CREATE TEMPORARY TABLE chat_room_duplicates ON COMMIT DROP AS"
+                    + " SELECT id, keeper FROM ("
+                    + "   SELECT id, MIN(id) OVER (PARTITION BY product_id, buyer_id, seller_id) AS keeper"
+                    + "   FROM chat_rooms WHERE product_id IS NOT NULL) r"
+                    + " WHERE id <> keeper");
+
+            int messages = jdbcTemplate.update("UPDATE messages m SET chat_room_id = d.keeper"
+                    + " FROM chat_room_duplicates d WHERE m.chat_room_id = d.id");
+            advanceMergedMarker("buyer");
+            advanceMergedMarker("seller");
+            int rooms = jdbcTemplate.update("DELETE FROM chat_rooms c USING chat_room_duplicates d WHERE c.id = d.id");
+
+            jdbcTemplate.execute("ALTER TABLE chat_rooms ADD CONSTRAINT " + CONSTRAINT
+                    + " UNIQUE (product_id, buyer_id, seller_id)");
+            logger.info("Merged {} duplicate chat rooms ({} messages moved) and added {}", rooms, messages, CONSTRAINT);
+        });
+    }
+
+    // The keeper takes the furthest (sent_at, id) read marker of its duplicates for one side
+    private void advanceMergedMarker(String side) {
+        String sentAt = side + "_last_read_sent_at";
+        String messageId = side + "_last_read_message_id";
+        jdbcTemplate.update("UPDATE chat_rooms k SET " + sentAt + " = x.sent_at, " + messageId + " = x.message_id"
+                + " FROM (SELECT DISTINCT ON (d.keeper) d.keeper, c." + sentAt + " AS sent_at,"
+                + "              c." + messageId + " AS message_id"
+                + "       FROM chat_room_duplicates d JOIN chat_rooms c ON c.id = d.id"
+                + "       WHERE c." + sentAt + " IS NOT NULL"
+                + "       ORDER BY d.keeper, c." + sentAt + " DESC, c." + messageId + " DESC) x"
+                + " WHERE k.id = x.keeper AND (k." + sentAt + " IS NULL"
+                + "   OR (k." + sentAt + ", k." + messageId + ") < (x.sent_at, x.message_id))");
+    }
+
+    private boolean constraintExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.table_constraints WHERE LOWER(constraint_name) = ?",
+                Integer.class, CONSTRAINT);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Caps concurrent HTTP requests when Tomcat runs on virtual threads.
+ * Platform threads were implicitly limited by server.tomcat.threads.max; virtual threads
+ * are not, so thousands of requests could pile up in Hikari's getConnection() and fail
+ * after connection-timeout. Excess requests wait here briefly and are then shed with 503.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class JdbcConcurrencyGuardFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConcurrencyGuardFilter.class);
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final Counter shedRequests;
+
+    public JdbcConcurrencyGuardFilter(
+            @Value("${app.virtual-threads.max-concurrent-requests:0}") int maxConcurrentRequests,
+            @Value("${app.virtual-threads.requests-per-connection:4}") int requestsPerConnection,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.virtual-threads.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+            MeterRegistry meterRegistry) {
+        // 0 = derive from the pool: most requests hold a connection for only part of their lifetime
+        int limit = maxConcurrentRequests > 0 ? maxConcurrentRequests : poolSize * requestsPerConnection;
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        Gauge.builder("http.requests.inflight", permits, p -> limit - p.availablePermits())
+                .description("Requests currently admitted by the virtual-thread concurrency guard")
+                .register(meterRegistry);
+        this.shedRequests = Counter.builder("http.requests.shed")
+                .description("Requests rejected with 503 because the concurrency guard was full")
+                .register(meterRegistry);
+
+        logger.info("Virtual-thread request guard: {} concurrent requests for {} pooled connections", limit, poolSize);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        // SockJS streaming transports and probes are long-lived or must never be shed;
+        // image serving reads files only and never takes a JDBC connection
+        return uri.startsWith("/ws") || uri.startsWith("/actuator") || uri.startsWith("/api/images/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            shedRequests.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"Server busy, please retry\"}");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import com.example.Cambo_MarketPlace.DTO.ChatMessageDTO;
+import com.example.Cambo_MarketPlace.Service.PresenceRegistry;
+import com.example.Cambo_MarketPlace.Service.TypingIndicatorService;
+
+/**
+ * Feeds STOMP session lifecycle into the presence registry and emits LEAVE
+ * to each room a user is no longer present in when their session closes.
+ */
+@Component
+public class PresenceEventListener {
+
+    private final PresenceRegistry presenceRegistry;
+    private final TypingIndicatorService typingIndicatorService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public PresenceEventListener(PresenceRegistry presenceRegistry,
+                                 TypingIndicatorService typingIndicatorService,
+                                 SimpMessagingTemplate messagingTemplate) {
+        this.presenceRegistry = presenceRegistry;
+        this.typingIndicatorService = typingIndicatorService;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null) {
+            return;
+        }
+        // Optional CONNECT headers; otherwise the user is bound on /app/chat.addUser
+        String userId = accessor.getFirstNativeHeader("userId");
+        Long parsedUserId = null;
+        if (userId != null) {
+            try {
+                parsedUserId = Long.valueOf(userId);
+            } catch (NumberFormatException e) {
+                // ignore malformed header
+            }
+        }
+        presenceRegistry.connect(accessor.getSessionId(), parsedUserId, accessor.getFirstNativeHeader("username"));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        for (PresenceRegistry.PresenceChange change : presenceRegistry.disconnect(event.getSessionId())) {
+            typingIndicatorService.stop(change.chatRoomId(), change.userId());
+            messagingTemplate.convertAndSend("/topic/chatroom/" + change.chatRoomId(),
+                    new ChatMessageDTO(change.chatRoomId(), change.userId(), change.username(),
+                            null, ChatMessageDTO.MessageType.LEAVE));
+        }
+    }
+}
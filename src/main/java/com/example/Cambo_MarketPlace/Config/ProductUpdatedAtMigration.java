@@ -0,0 +1,63 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * One-off migration for products.updated_at. On a database that already has products,
+ * ddl-auto=update either adds the column as nullable (rows stay NULL, and the
+ * (updated_at, id) export cursor never returns them) or fails to add it as NOT NULL
+ * without a default (it only logs the failed ALTER). So before the application serves
+ * requests, the column is added if missing, NULLs are backfilled from created_at and
+ * the column is made NOT NULL, in one transaction. Runs once; a failure stops startup.
+ */
+@Component
+public class ProductUpdatedAtMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductUpdatedAtMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // EntityManagerFactory is injected so the column exists (ddl-auto) before migrating
+    public ProductUpdatedAtMigration(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void migrate() {
+        if (notNull()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Blocks inserts from other instances so no NULL lands between backfill and ALTER
+            jdbcTemplate.execute("LOCK TABLE products IN SHARE ROW EXCLUSIVE MODE");
+            if (notNull()) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE products ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6)");
+            int rows = jdbcTemplate.update("UPDATE products SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP)"
+                    + " WHERE updated_at IS NULL");
+            jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN updated_at SET NOT NULL");
+            logger.info("Backfilled updated_at on {} products and made it NOT NULL", rows);
+        });
+    }
+
+    private boolean notNull() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE LOWER(table_name) = 'products'"
+                        + " AND LOWER(column_name) = 'updated_at' AND is_nullable = 'NO'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+}
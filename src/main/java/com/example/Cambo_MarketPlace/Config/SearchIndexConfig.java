@@ -0,0 +1,38 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.Cambo_MarketPlace.Repository.ProductRepository;
+
+/**
+ * Creates the GIN index behind product full-text search.
+ * ddl-auto=update cannot express expression indexes, so it is issued here once
+ * Hibernate has created the products table. PostgreSQL keeps the index up to date
+ * on every insert/update, so no separate re-indexing step is needed.
+ */
+@Component
+public class SearchIndexConfig implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexConfig.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchIndexConfig(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_products_search ON products USING GIN ("
+                    + ProductRepository.SEARCH_VECTOR + ")");
+        } catch (Exception e) {
+            logger.warn("Could not create product search index: {}", e.getMessage());
+        }
+    }
+}
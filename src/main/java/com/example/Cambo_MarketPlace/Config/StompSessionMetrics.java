@@ -0,0 +1,109 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Gauges for connected STOMP sessions and live subscriptions per destination.
+ * Numeric ids are collapsed ("/topic/chatroom/{id}") and anything that is not one of
+ * the destinations the server publishes to is counted as "other", so clients cannot
+ * create meters by subscribing to arbitrary destinations.
+ */
+@Component
+public class StompSessionMetrics {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    // Destinations ChatController publishes to; keep in sync when adding topics
+    private static final Set<String> KNOWN_DESTINATIONS = Set.of(
+            "/topic/chatroom/{id}",
+            "/topic/user/{id}/notifications");
+    static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger connectedSessions = new AtomicInteger();
+    // sessionId -> (subscriptionId -> destination template)
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> subscriptionsByDestination = new ConcurrentHashMap<>();
+
+    public StompSessionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("stomp.sessions.connected", connectedSessions, AtomicInteger::get)
+                .description("Connected STOMP sessions")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        connectedSessions.incrementAndGet();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null
+                || accessor.getDestination() == null) {
+            return;
+        }
+        String destination = template(accessor.getDestination());
+        String previous = subscriptions
+                .computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), destination);
+        if (previous != null) {
+            counter(previous).decrementAndGet();
+        }
+        counter(destination).incrementAndGet();
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> sessionSubscriptions = subscriptions.get(accessor.getSessionId());
+        if (sessionSubscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String destination = sessionSubscriptions.remove(accessor.getSubscriptionId());
+        if (destination != null) {
+            counter(destination).decrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> sessionSubscriptions = subscriptions.remove(event.getSessionId());
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.values().forEach(destination -> counter(destination).decrementAndGet());
+        }
+        // A disconnect can also arrive for a session that never completed CONNECT
+        connectedSessions.updateAndGet(count -> Math.max(count - 1, 0));
+    }
+
+    private AtomicInteger counter(String destination) {
+        return subscriptionsByDestination.computeIfAbsent(destination, d -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("stomp.subscriptions", count, AtomicInteger::get)
+                    .tag("destination", d)
+                    .description("Live STOMP subscriptions per destination")
+                    .register(meterRegistry);
+            return count;
+        });
+    }
+
+    static String template(String destination) {
+        String template = NUMERIC_SEGMENT.matcher(destination).replaceAll("/{id}");
+        return KNOWN_DESTINATIONS.contains(template) ? template : OTHER;
+    }
+}
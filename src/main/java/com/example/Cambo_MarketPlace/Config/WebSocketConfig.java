@@ -1,23 +1,153 @@
 package com.example.Cambo_MarketPlace.Config;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // "simple" = in-memory broker (single node), "relay" = external STOMP broker (multi-node)
+    @Value("${app.websocket.broker:simple}")
+    private String brokerMode;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Broker heartbeats in ms: {server -> client, client -> server}; 0 disables
+    @Value("${app.websocket.heartbeat.send-ms:10000}")
+    private long heartbeatSendMs;
+
+    @Value("${app.websocket.heartbeat.receive-ms:10000}")
+    private long heartbeatReceiveMs;
+
+    // Channel executors
+    @Value("${app.websocket.virtual-threads:${spring.threads.virtual.enabled:false}}")
+    private boolean virtualThreads;
+
+    @Value("${app.websocket.inbound.core-pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 2}}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.inbound.max-pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 4}}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.outbound.core-pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 2}}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 4}}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+
+    // Per-session transport limits
+    @Value("${app.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.websocket.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.time-to-first-message-ms:30000}")
+    private int timeToFirstMessageMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebSocketSessionMetrics webSocketSessionMetrics;
+
+    // Spring's own broker scheduler; lazy because it is created by the same configuration
+    @Autowired
+    @Lazy
+    private TaskScheduler messageBrokerTaskScheduler;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple in-memory message broker to send messages to clients
-        config.enableSimpleBroker("/topic", "/queue");
+        long[] heartbeat = {heartbeatSendMs, heartbeatReceiveMs};
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // Relay /topic and /queue to an external broker so every node sees every room
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatSendMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceiveMs);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            // Enable a simple in-memory message broker to send messages to clients
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(heartbeat)
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        }
         // Define the prefix for messages that are bound for methods annotated with @MessageMapping
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.executor(channelExecutor("inbound",
+                inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(channelExecutor("outbound",
+                outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session that can't drain its buffer within these limits is closed
+        // (SESSION_NOT_RELIABLE) instead of holding an outbound thread hostage
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(webSocketSessionMetrics);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register the /ws endpoint for websocket connections
@@ -25,4 +155,67 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS(); // Enable SockJS fallback options
     }
+
+    /**
+     * Bounded platform-thread pool, or one virtual thread per message capped at
+     * maxPoolSize concurrent tasks. Either way the channel's queued and running
+     * tasks are exported as gauges tagged with the channel name.
+     */
+    private Executor channelExecutor(String channel, int corePoolSize, int maxPoolSize, int queueCapacity) {
+        String threadNamePrefix = "ws-" + channel + "-";
+        if (virtualThreads) {
+            AtomicInteger queued = new AtomicInteger();
+            AtomicInteger running = new AtomicInteger();
+            // Past the concurrency limit execute() blocks the caller until a task finishes,
+            // so a task counts as queued from submission until its thread starts it
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix) {
+                @Override
+                public void execute(Runnable task) {
+                    queued.incrementAndGet();
+                    try {
+                        super.execute(task);
+                    } catch (RuntimeException e) {
+                        queued.decrementAndGet();
+                        throw e;
+                    }
+                }
+            };
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(maxPoolSize);
+            executor.setTaskDecorator(task -> () -> {
+                queued.decrementAndGet();
+                running.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+            registerChannelGauges(channel, queued::get, running::get);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        // initialize() is called by the container once Spring registers the channel executor bean
+
+        registerChannelGauges(channel,
+                () -> executor.getThreadPoolExecutor().getQueue().size(), executor::getActiveCount);
+        return executor;
+    }
+
+    private void registerChannelGauges(String channel, Supplier<Number> queued, Supplier<Number> active) {
+        Gauge.builder("websocket.channel.queue.depth", queued)
+                .tag("channel", channel)
+                .description("Messages waiting for a " + channel + " channel thread")
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active.threads", active)
+                .tag("channel", channel)
+                .description("Messages being handled on the " + channel + " channel")
+                .register(meterRegistry);
+    }
 }
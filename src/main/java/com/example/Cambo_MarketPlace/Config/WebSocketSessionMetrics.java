@@ -0,0 +1,55 @@
+package com.example.Cambo_MarketPlace.Config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts open WebSocket sessions and sessions dropped for being too slow.
+ * Spring closes a session with SESSION_NOT_RELIABLE when its send buffer or
+ * send time limit is exceeded (see WebSocketConfig#configureWebSocketTransport).
+ */
+@Component
+public class WebSocketSessionMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Counter slowSessionsDropped;
+
+    public WebSocketSessionMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("websocket.sessions.active", activeSessions, AtomicInteger::get)
+                .description("Open WebSocket/SockJS sessions")
+                .register(meterRegistry);
+        this.slowSessionsDropped = Counter.builder("websocket.sessions.dropped.slow")
+                .description("Sessions closed because they exceeded the send buffer or send time limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                activeSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                activeSessions.decrementAndGet();
+                if (closeStatus.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()) {
+                    slowSessionsDropped.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+}
@@ -3,15 +3,21 @@ package com.example.Cambo_MarketPlace.Controller;
 import com.example.Cambo_MarketPlace.Models.User;
 import com.example.Cambo_MarketPlace.Repository.UserRepository;
 import com.example.Cambo_MarketPlace.Security.JwtUtil;
+import com.example.Cambo_MarketPlace.Security.PasswordHashingRejectedException;
+import com.example.Cambo_MarketPlace.Security.RefreshTokenService;
+import com.example.Cambo_MarketPlace.Service.DuplicateUserException;
+import com.example.Cambo_MarketPlace.Service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,44 +26,51 @@ import java.util.Map;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final MeterRegistry meterRegistry;
 
     public AuthController(UserRepository userRepository,
-                          PasswordEncoder passwordEncoder,
+                          UserService userService,
                           JwtUtil jwtUtil,
-                          AuthenticationManager authenticationManager) {
+                          AuthenticationManager authenticationManager,
+                          RefreshTokenService refreshTokenService,
+                          MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.userService = userService;
         this.jwtUtil = jwtUtil;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.meterRegistry = meterRegistry;
     }
 
     // ---------------- REGISTER ----------------
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Username already exists"));
-        }
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Email already exists"));
-        }
-
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(request.getPassword());
         user.setRole(request.getRole() != null ? request.getRole() : "USER");
-        user.setCreatedAt(LocalDateTime.now());
 
-        userRepository.save(user);
+        try {
+            userService.createUser(user);
+        } catch (DuplicateUserException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests(e);
+        }
 
         return ResponseEntity.ok(Map.of("message", "User registered successfully"));
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+        // Whole login; BCrypt alone is auth.password.hash{operation=matches}
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
@@ -66,26 +79,68 @@ public class AuthController {
             User user = userRepository.findByEmail(request.getEmail())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            String token = jwtUtil.generateToken(user.getEmail(), "ROLE_" + user.getRole());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
-            response.put("user", Map.of(
-                    "id", user.getId(),
-                    "username", user.getUsername(),
-                    "email", user.getEmail(),
-                    "role", user.getRole()
-            ));
-
-            return ResponseEntity.ok(response);
+            outcome = "success";
+            return ResponseEntity.ok(tokenResponse(user, refreshTokenService.issue(user)));
+        } catch (PasswordHashingRejectedException e) {
+            outcome = "shed";
+            return tooManyRequests(e);
         } catch (BadCredentialsException e) {
+            outcome = "bad_credentials";
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid email or password"));
         } catch (AuthenticationException e) {
+            // Unknown-user path: DaoAuthenticationProvider wraps errors from its dummy hash check
+            if (e.getCause() instanceof PasswordHashingRejectedException rejected) {
+                outcome = "shed";
+                return tooManyRequests(rejected);
+            }
+            outcome = "failed";
             return ResponseEntity.badRequest().body(Map.of("error", "Authentication failed"));
+        } finally {
+            sample.stop(meterRegistry.timer("auth.login", "outcome", outcome));
+        }
+    }
+
+    // ---------------- REFRESH ----------------
+    // Single-use: the presented refresh token is consumed and a new one returned
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "refreshToken is required"));
         }
+        return refreshTokenService.rotate(request.getRefreshToken())
+                .<ResponseEntity<?>>map(rotation ->
+                        ResponseEntity.ok(tokenResponse(rotation.user(), rotation.refreshToken())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid or expired refresh token")));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody RefreshRequest request) {
+        if (request.getRefreshToken() != null && !request.getRefreshToken().isBlank()) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
 
+    private Map<String, Object> tokenResponse(User user, String refreshToken) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", jwtUtil.generateToken(user.getEmail(), "ROLE_" + user.getRole()));
+        response.put("refreshToken", refreshToken);
+        response.put("expiresIn", jwtUtil.getAccessTokenTtlSeconds());
+        response.put("user", Map.of(
+                "id", user.getId(),
+                "username", user.getUsername(),
+                "email", user.getEmail(),
+                "role", user.getRole()
+        ));
+        return response;
+    }
+
+    private ResponseEntity<?> tooManyRequests(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
 
     // ---------------- DTOs ----------------
     public static class RegisterRequest {
@@ -113,4 +168,11 @@ public class AuthController {
         public String getPassword() { return password; }
         public void setPassword(String password) { this.password = password; }
     }
+
+    public static class RefreshRequest {
+        private String refreshToken;
+
+        public String getRefreshToken() { return refreshToken; }
+        public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    }
 }
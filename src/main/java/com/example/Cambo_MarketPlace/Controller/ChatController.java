@@ -1,9 +1,12 @@
 package com.example.Cambo_MarketPlace.Controller;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
@@ -11,11 +14,23 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import com.example.Cambo_MarketPlace.DTO.ChatMessageDTO;
+import com.example.Cambo_MarketPlace.DTO.ReadReceiptDTO;
+import com.example.Cambo_MarketPlace.DTO.TypingEventDTO;
+import com.example.Cambo_MarketPlace.DTO.UnreadCountDTO;
 import com.example.Cambo_MarketPlace.Models.Message;
 import com.example.Cambo_MarketPlace.Service.ChatService;
+import com.example.Cambo_MarketPlace.Service.NotificationAggregator;
+import com.example.Cambo_MarketPlace.Service.PresenceRegistry;
+import com.example.Cambo_MarketPlace.Service.ReadStateService;
+import com.example.Cambo_MarketPlace.Service.TypingIndicatorService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 
 @Controller
 public class ChatController {
@@ -26,6 +41,35 @@ public class ChatController {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ReadStateService readStateService;
+
+    @Autowired
+    private NotificationAggregator notificationAggregator;
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+
+    @Autowired
+    private TypingIndicatorService typingIndicatorService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.chat.write-behind.enabled:false}")
+    private boolean writeBehind;
+
+    private Timer saveMessageTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        // Timed here, outside the service proxy, so the transaction commit (the INSERT) is included
+        saveMessageTimer = Timer.builder("chat.message.save")
+                .tag("mode", writeBehind ? "write-behind" : "sync")
+                .description("ChatService.saveMessage including commit")
+                .register(meterRegistry);
+    }
+
     /**
      * Handle sending messages
      * Client sends to: /app/chat.sendMessage
@@ -34,7 +78,7 @@ public class ChatController {
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload ChatMessageDTO chatMessage) {
         // Save message to database
-        Message savedMessage = chatService.saveMessage(chatMessage);
+        Message savedMessage = saveMessageTimer.record(() -> chatService.saveMessage(chatMessage));
         
         // Convert to DTO
         ChatMessageDTO responseDTO = chatService.convertToDTO(savedMessage);
@@ -45,19 +89,48 @@ public class ChatController {
             responseDTO
         );
         
-        // Get the chat room to find the other user
-        var chatRoom = chatService.getChatRoom(chatMessage.getChatRoomId());
-        if (chatRoom.isPresent()) {
-            Long recipientId = chatMessage.getSenderId().equals(chatRoom.get().getBuyer().getId()) 
-                ? chatRoom.get().getSeller().getId() 
-                : chatRoom.get().getBuyer().getId();
+        // Find the other user from the cached room membership
+        var membership = chatService.getChatRoomMembership(chatMessage.getChatRoomId());
+        if (membership.isPresent()) {
+            Long recipientId = membership.get().otherParticipant(chatMessage.getSenderId());
             
-            // Send notification to the other user
-            messagingTemplate.convertAndSend(
-                "/topic/user/" + recipientId + "/notifications",
-                responseDTO
-            );
+            // Notify the other user with their updated badge; coalesced per window
+            long unread = readStateService.onMessage(membership.get(), chatMessage.getSenderId(),
+                    responseDTO.getId(), responseDTO.getSentAt());
+            notificationAggregator.add(recipientId, responseDTO, unread);
+        }
+    }
+
+    /**
+     * Handle read receipts
+     * Client sends to: /app/chat.read
+     * Receipt is broadcast to: /topic/chatroom/{chatRoomId}
+     * Reader's new unread count goes to: /topic/user/{userId}/notifications
+     */
+    @MessageMapping("/chat.read")
+    public void markRead(@Payload ReadReceiptDTO receipt) {
+        if (receipt.chatRoomId() == null || receipt.userId() == null || receipt.lastReadMessageId() == null
+                || receipt.lastReadSentAt() == null) {
+            return;
         }
+        var membership = chatService.getChatRoomMembership(receipt.chatRoomId());
+        if (membership.isEmpty() || !membership.get().isParticipant(receipt.userId())) {
+            return;
+        }
+
+        long unread = readStateService.markRead(membership.get(), receipt.userId(),
+                receipt.lastReadMessageId(), receipt.lastReadSentAt());
+
+        messagingTemplate.convertAndSend(
+            "/topic/chatroom/" + receipt.chatRoomId(),
+            new ReadReceiptDTO(receipt.chatRoomId(), receipt.userId(), receipt.lastReadMessageId(),
+                    receipt.lastReadSentAt())
+        );
+        // Clears the badge on the reader's other devices too
+        messagingTemplate.convertAndSend(
+            "/topic/user/" + receipt.userId() + "/notifications",
+            new UnreadCountDTO(receipt.chatRoomId(), unread)
+        );
     }
 
     /**
@@ -71,6 +144,12 @@ public class ChatController {
         // Add username in web socket session
         headerAccessor.getSessionAttributes().put("username", chatMessage.getSenderUsername());
         headerAccessor.getSessionAttributes().put("chatRoomId", chatMessage.getChatRoomId());
+        if (chatMessage.getSenderId() != null && chatMessage.getChatRoomId() != null
+                && !presenceRegistry.join(headerAccessor.getSessionId(), chatMessage.getChatRoomId(),
+                        chatMessage.getSenderId(), chatMessage.getSenderUsername())) {
+            // Already present from another tab/device: others have seen the JOIN
+            return;
+        }
         
         // Notify others in the chat room
         messagingTemplate.convertAndSend(
@@ -80,15 +159,46 @@ public class ChatController {
     }
 
     /**
-     * REST endpoint to get chat room messages
+     * Handle typing indicators
+     * Client sends to: /app/chat.typing
+     * Coalesced TYPING frames are broadcast to: /topic/chatroom/{chatRoomId}
+     */
+    @MessageMapping("/chat.typing")
+    public void typing(@Payload TypingEventDTO event) {
+        if (event.chatRoomId() == null || event.userId() == null) {
+            return;
+        }
+        // Membership comes from the cache, so typing traffic never reaches the database
+        var membership = chatService.getChatRoomMembership(event.chatRoomId());
+        if (membership.isPresent() && membership.get().isParticipant(event.userId())) {
+            typingIndicatorService.update(event.chatRoomId(), event.userId(), event.typing());
+        }
+    }
+
+    /**
+     * REST endpoint to get the users currently present in a chat room
+     */
+    @GetMapping("/api/chatrooms/{chatRoomId}/presence")
+    @ResponseBody
+    public Set<Long> getChatRoomPresence(@PathVariable Long chatRoomId) {
+        return presenceRegistry.getUsersInRoom(chatRoomId);
+    }
+
+    /**
+     * REST endpoint to get chat room messages, cursor-paginated.
+     * No cursor returns the latest page; pass nextCursor back as "before" to load older messages.
      */
     @GetMapping("/api/chatrooms/{chatRoomId}/messages")
     @ResponseBody
-    public List<ChatMessageDTO> getChatRoomMessages(@PathVariable Long chatRoomId) {
-        List<Message> messages = chatService.getChatRoomMessages(chatRoomId);
-        return messages.stream()
-                .map(chatService::convertToDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<?> getChatRoomMessages(@PathVariable Long chatRoomId,
+                                                 @RequestParam(required = false) String before,
+                                                 @RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "" + ChatService.DEFAULT_HISTORY_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(chatService.getMessageHistory(chatRoomId, before, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -97,8 +207,6 @@ public class ChatController {
     @GetMapping("/api/users/{userId}/chatrooms")
     @ResponseBody
     public List<Long> getUserChatRooms(@PathVariable Long userId) {
-        return chatService.getUserChatRooms(userId).stream()
-                .map(chatRoom -> chatRoom.getId())
-                .collect(Collectors.toList());
+        return chatService.getUserChatRoomIds(userId);
     }
 }
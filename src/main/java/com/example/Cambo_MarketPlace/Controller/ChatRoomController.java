@@ -12,13 +12,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.Cambo_MarketPlace.DTO.ChatRoomSummaryDTO;
 import com.example.Cambo_MarketPlace.Models.ChatRoom;
 import com.example.Cambo_MarketPlace.Repository.ChatRoomRepository;
 import com.example.Cambo_MarketPlace.Repository.UserRepository;
 import com.example.Cambo_MarketPlace.Service.ChatService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @RestController
 @RequestMapping("/api/chatrooms")
 public class ChatRoomController {
@@ -32,6 +37,9 @@ public class ChatRoomController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Get or create a chat room for a product
      */
@@ -52,8 +60,11 @@ public class ChatRoomController {
                     .body(Map.of("error", "You cannot chat with yourself"));
         }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             ChatRoom chatRoom = chatService.getOrCreateChatRoom(productId, buyerId, sellerId);
+            outcome = "success";
             
             Map<String, Object> response = new HashMap<>();
             response.put("chatRoomId", chatRoom.getId());
@@ -70,46 +81,21 @@ public class ChatRoomController {
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
+        } finally {
+            // Timed outside the service proxy so the commit is included
+            sample.stop(meterRegistry.timer("chat.room.get_or_create", "outcome", outcome));
         }
     }
 
     /**
-     * Get user's chat rooms
+     * Get user's chat rooms (inbox), paginated
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserChatRooms(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserChatRooms(@PathVariable Long userId,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "" + ChatService.DEFAULT_INBOX_PAGE_SIZE) int size) {
         try {
-            List<ChatRoom> chatRooms = chatService.getUserChatRooms(userId);
-            
-            // Convert to DTOs to avoid circular references
-            List<Map<String, Object>> response = chatRooms.stream().map(room -> {
-                Map<String, Object> dto = new HashMap<>();
-                dto.put("id", room.getId());
-                dto.put("chatRoomId", room.getId());
-                
-                // Buyer info
-                Map<String, Object> buyer = new HashMap<>();
-                buyer.put("id", room.getBuyer().getId());
-                buyer.put("username", room.getBuyer().getUsername());
-                dto.put("buyer", buyer);
-                
-                // Seller info
-                Map<String, Object> seller = new HashMap<>();
-                seller.put("id", room.getSeller().getId());
-                seller.put("username", room.getSeller().getUsername());
-                dto.put("seller", seller);
-                
-                // Product info
-                if (room.getProduct() != null) {
-                    Map<String, Object> product = new HashMap<>();
-                    product.put("id", room.getProduct().getId());
-                    product.put("title", room.getProduct().getTitle());
-                    dto.put("product", product);
-                }
-                
-                return dto;
-            }).toList();
-            
+            List<ChatRoomSummaryDTO> response = chatService.getUserInbox(userId, page, size);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -0,0 +1,132 @@
+package com.example.Cambo_MarketPlace.Controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.Cambo_MarketPlace.Service.BlobStore;
+import com.example.Cambo_MarketPlace.Service.ImageProcessingRejectedException;
+import com.example.Cambo_MarketPlace.Service.ImageService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/api")
+public class ImageController {
+
+    // Set by Tomcat's NIO connector when it can hand the file to the kernel (sendfile)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Blob keys are content hashes, so a URL's bytes never change
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    /**
+     * Upload an image for one of the caller's products (multipart field "file").
+     * Returns 202 with status PROCESSING while thumbnails are generated.
+     */
+    @PostMapping("/products/{productId}/images")
+    public ResponseEntity<?> upload(@PathVariable Long productId,
+                                    @RequestParam("file") MultipartFile file,
+                                    Principal principal) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(imageService.upload(productId, principal.getName(), file.getBytes()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (ImageProcessingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/products/{productId}/images")
+    public ResponseEntity<?> getImages(@PathVariable Long productId) {
+        return ResponseEntity.ok(imageService.getImages(productId));
+    }
+
+    /**
+     * Serve a blob without copying it through the heap: via Tomcat sendfile when available
+     * (the request thread returns immediately), otherwise FileChannel.transferTo
+     */
+    @GetMapping("/images/{key:.+}")
+    public void serve(@PathVariable String key, WebRequest webRequest,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Resource> blob = blobStore.get(key);
+        if (blob.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (webRequest.checkNotModified("\"" + key + "\"")) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setContentType(MediaTypeFactory.getMediaType(key)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        Resource resource = blob.get();
+        if (!resource.isFile()) {
+            try (InputStream in = resource.getInputStream()) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+
+        Path path = resource.getFile().toPath();
+        long length = Files.size(path);
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
+}
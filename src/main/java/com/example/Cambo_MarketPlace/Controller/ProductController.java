@@ -1,33 +1,112 @@
 package com.example.Cambo_MarketPlace.Controller;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.Cambo_MarketPlace.Models.Product;
-import com.example.Cambo_MarketPlace.Repository.ProductRepository;
+import com.example.Cambo_MarketPlace.DTO.CursorPageDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO;
+import com.example.Cambo_MarketPlace.Repository.ProductFilter;
+import com.example.Cambo_MarketPlace.Service.ProductJsonWriter;
+import com.example.Cambo_MarketPlace.Service.ProductService;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductService productService;
+
+    @Autowired
+    private ProductJsonWriter productJsonWriter;
+
+    // Write catalog pages with ProductJsonWriter instead of the Jackson message converter
+    @Value("${app.products.streaming-json:false}")
+    private boolean streamingJson;
 
+    /**
+     * Keyset-paginated catalog, newest first.
+     * Pass the returned nextCursor back as ?cursor= to load the following page.
+     */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productRepository.findAll());
+    public ResponseEntity<?> getProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long sellerId,
+            HttpServletResponse response) throws IOException {
+        try {
+            ProductFilter filter = new ProductFilter(status, minPrice, maxPrice, sellerId);
+            CursorPageDTO<ProductSummaryDTO> page = productService.getCatalogPage(filter, cursor, limit);
+            if (streamingJson) {
+                // Written directly; a null ResponseEntity tells Spring the response is handled
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                productJsonWriter.writeCatalogPage(page, response.getOutputStream());
+                return null;
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Whole catalog as NDJSON, one product per line, streamed from a database cursor.
+     * Pass updatedSince (ISO date-time) to get only products changed at or after it;
+     * rows come in (updatedAt, id) order, so the last line's updatedAt is the next watermark.
+     */
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        productService.exportCatalog(updatedSince, response.getOutputStream());
+    }
+
+    /**
+     * Ranked full-text search over title and description
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            return ResponseEntity.ok(productService.search(query, status, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
+    /**
+     * Product detail from pre-serialized JSON. Spring answers If-None-Match with 304
+     * automatically because the response carries an ETag.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<?> getProduct(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .map(ResponseEntity::ok)
+        return productService.getProductDetail(id)
+                .<ResponseEntity<?>>map(detail -> ResponseEntity.ok()
+                        .eTag(detail.etag())
+                        .cacheControl(CacheControl.noCache())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(detail.json()))
                 .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -3,6 +3,7 @@ package com.example.Cambo_MarketPlace.DTO;
 import java.time.LocalDateTime;
 
 public class ChatMessageDTO {
+    private Long id;
     private Long chatRoomId;
     private Long senderId;
     private String senderUsername;
@@ -29,7 +30,26 @@ public class ChatMessageDTO {
         this.sentAt = LocalDateTime.now();
     }
 
+    // Used by MessageRepository history queries
+    public ChatMessageDTO(Long id, Long chatRoomId, Long senderId, String senderUsername, String content, LocalDateTime sentAt) {
+        this.id = id;
+        this.chatRoomId = chatRoomId;
+        this.senderId = senderId;
+        this.senderUsername = senderUsername;
+        this.content = content;
+        this.sentAt = sentAt;
+        this.type = MessageType.CHAT;
+    }
+
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Long getChatRoomId() {
         return chatRoomId;
     }
@@ -0,0 +1,16 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+/**
+ * Who belongs to a chat room; all the send path needs to route a message
+ */
+public record ChatRoomMembership(Long chatRoomId, Long buyerId, Long sellerId, Long productId) {
+
+    public boolean isParticipant(Long userId) {
+        return buyerId.equals(userId) || sellerId.equals(userId);
+    }
+
+    // The participant on the other side of the conversation from userId
+    public Long otherParticipant(Long userId) {
+        return buyerId.equals(userId) ? sellerId : buyerId;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One inbox row, built directly by a JPQL constructor expression so that
+ * listing a user's rooms never touches ChatRoom/User/Product entities.
+ */
+public class ChatRoomSummaryDTO {
+    public static final int PREVIEW_LENGTH = 100;
+
+    private Long id;
+    private Participant buyer;
+    private Participant seller;
+    private ProductRef product;
+    private LastMessage lastMessage;
+    private long unreadCount;
+
+    public ChatRoomSummaryDTO() {
+    }
+
+    // Used by ChatRoomRepository.findInbox
+    public ChatRoomSummaryDTO(Long id,
+                              Long buyerId, String buyerUsername,
+                              Long sellerId, String sellerUsername,
+                              Long productId, String productTitle,
+                              String lastMessageContent, LocalDateTime lastMessageSentAt, Long lastMessageSenderId,
+                              Long unreadCount) {
+        this.id = id;
+        this.buyer = new Participant(buyerId, buyerUsername);
+        this.seller = new Participant(sellerId, sellerUsername);
+        this.product = productId != null ? new ProductRef(productId, productTitle) : null;
+        this.lastMessage = lastMessageSentAt != null
+                ? new LastMessage(preview(lastMessageContent), lastMessageSentAt, lastMessageSenderId)
+                : null;
+        this.unreadCount = unreadCount != null ? unreadCount : 0;
+    }
+
+    static String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH) + "…";
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getChatRoomId() {
+        return id;
+    }
+
+    public Participant getBuyer() {
+        return buyer;
+    }
+
+    public void setBuyer(Participant buyer) {
+        this.buyer = buyer;
+    }
+
+    public Participant getSeller() {
+        return seller;
+    }
+
+    public void setSeller(Participant seller) {
+        this.seller = seller;
+    }
+
+    public ProductRef getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductRef product) {
+        this.product = product;
+    }
+
+    public LastMessage getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(LastMessage lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public record Participant(Long id, String username) {
+    }
+
+    public record ProductRef(Long id, String title) {
+    }
+
+    public record LastMessage(String content, LocalDateTime sentAt, Long senderId) {
+    }
+}
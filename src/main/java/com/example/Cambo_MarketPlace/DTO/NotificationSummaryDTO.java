@@ -0,0 +1,43 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One frame on /topic/user/{id}/notifications (type NOTIFICATIONS) summarising
+ * every room that received messages during the coalescing window
+ */
+public record NotificationSummaryDTO(String type, List<RoomUpdate> rooms) {
+
+    public static final String TYPE = "NOTIFICATIONS";
+
+    public NotificationSummaryDTO(List<RoomUpdate> rooms) {
+        this(TYPE, rooms);
+    }
+
+    /**
+     * newMessages arrived in the window; unreadCount is the room's badge after the last one
+     */
+    public record RoomUpdate(Long chatRoomId, int newMessages, long unreadCount,
+                             Long lastMessageId, Long lastSenderId, String lastSenderUsername,
+                             String preview, LocalDateTime lastSentAt) {
+
+        public static RoomUpdate of(ChatMessageDTO message, long unreadCount) {
+            return new RoomUpdate(message.getChatRoomId(), 1, unreadCount,
+                    message.getId(), message.getSenderId(), message.getSenderUsername(),
+                    ChatRoomSummaryDTO.preview(message.getContent()), message.getSentAt());
+        }
+
+        public RoomUpdate withUnreadCount(long unreadCount) {
+            return new RoomUpdate(chatRoomId, newMessages, unreadCount, lastMessageId, lastSenderId,
+                    lastSenderUsername, preview, lastSentAt);
+        }
+
+        // Keeps the latest message and badge, adds up the counts
+        public RoomUpdate merge(RoomUpdate newer) {
+            return new RoomUpdate(chatRoomId, newMessages + newer.newMessages, newer.unreadCount,
+                    newer.lastMessageId, newer.lastSenderId, newer.lastSenderUsername,
+                    newer.preview, newer.lastSentAt);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Product detail response, read by ProductRepository.findDetail without loading the entity
+ */
+public record ProductDetailDTO(Long id, String title, String description, Double price, String status,
+                               LocalDateTime createdAt, LocalDateTime updatedAt,
+                               ProductSummaryDTO.SellerRef seller) {
+
+    // Used by ProductRepository.findDetail
+    public ProductDetailDTO(Long id, String title, String description, Double price, String status,
+                            LocalDateTime createdAt, LocalDateTime updatedAt, Long sellerId,
+                            String sellerUsername) {
+        this(id, title, description, price, status, createdAt, updatedAt,
+                sellerId != null ? new ProductSummaryDTO.SellerRef(sellerId, sellerUsername) : null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One NDJSON line of the catalog export, projected straight from the export cursor
+ */
+public record ProductExportDTO(Long id, String title, String description, Double price, String status,
+                               LocalDateTime createdAt, LocalDateTime updatedAt, Long sellerId) {
+}
@@ -0,0 +1,28 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+
+import com.example.Cambo_MarketPlace.Models.ProductImage;
+
+/**
+ * A product image with URLs for the original and each thumbnail size.
+ * Thumbnail URLs are null until status is READY.
+ */
+public record ProductImageDTO(Long id, Long productId, int position, String status,
+                              Integer width, Integer height, String url,
+                              String smallUrl, String mediumUrl, String largeUrl,
+                              LocalDateTime createdAt) {
+
+    public static final String URL_PREFIX = "/api/images/";
+
+    public static ProductImageDTO from(ProductImage image, Long productId) {
+        return new ProductImageDTO(image.getId(), productId, image.getPosition(), image.getStatus(),
+                image.getWidth(), image.getHeight(), url(image.getOriginalKey()),
+                url(image.getSmallKey()), url(image.getMediumKey()), url(image.getLargeKey()),
+                image.getCreatedAt());
+    }
+
+    public static String url(String blobKey) {
+        return blobKey != null ? URL_PREFIX + blobKey : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ranked full-text search hit, read straight from the native search query.
+ * Highlighted fragments wrap matched terms in &lt;mark&gt; tags.
+ */
+public interface ProductSearchHit {
+    Long getId();
+
+    String getTitle();
+
+    Double getPrice();
+
+    String getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    Long getSellerId();
+
+    String getTitleHighlight();
+
+    String getSnippet();
+
+    Double getRank();
+}
@@ -0,0 +1,10 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A search hit with its primary image; serialized as the hit's fields plus primaryImage
+ */
+public record ProductSearchResultDTO(@JsonUnwrapped ProductSearchHit hit,
+                                     ProductSummaryDTO.PrimaryImage primaryImage) {
+}
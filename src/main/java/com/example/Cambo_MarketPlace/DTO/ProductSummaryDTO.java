@@ -0,0 +1,32 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One catalog row, built by a JPQL constructor expression so listing products
+ * never hydrates Product/User entities or their proxies. The primary image is
+ * attached afterwards from one batch query per page.
+ */
+public record ProductSummaryDTO(Long id, String title, Double price, String status,
+                                LocalDateTime createdAt, SellerRef seller, PrimaryImage primaryImage) {
+
+    // Used by ProductRepositoryCustomImpl.findCatalogPage
+    public ProductSummaryDTO(Long id, String title, Double price, String status,
+                             LocalDateTime createdAt, Long sellerId, String sellerUsername) {
+        this(id, title, price, status, createdAt,
+                sellerId != null ? new SellerRef(sellerId, sellerUsername) : null, null);
+    }
+
+    public ProductSummaryDTO withPrimaryImage(PrimaryImage image) {
+        return new ProductSummaryDTO(id, title, price, status, createdAt, seller, image);
+    }
+
+    public record SellerRef(Long id, String username) {
+    }
+
+    /**
+     * A product's first image; thumbnailUrl (small size) is null until thumbnails are ready
+     */
+    public record PrimaryImage(Long id, String url, String thumbnailUrl) {
+    }
+}
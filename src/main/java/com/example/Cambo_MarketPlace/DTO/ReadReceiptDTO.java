@@ -0,0 +1,18 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Client -> /app/chat.read: userId has read everything in the room up to the message
+ * lastReadMessageId, sent at lastReadSentAt (both as received in the ChatMessageDTO).
+ * Re-broadcast to /topic/chatroom/{id} with type READ so the sender can show "seen".
+ */
+public record ReadReceiptDTO(String type, Long chatRoomId, Long userId, Long lastReadMessageId,
+                             LocalDateTime lastReadSentAt) {
+
+    public static final String TYPE = "READ";
+
+    public ReadReceiptDTO(Long chatRoomId, Long userId, Long lastReadMessageId, LocalDateTime lastReadSentAt) {
+        this(TYPE, chatRoomId, userId, lastReadMessageId, lastReadSentAt);
+    }
+}
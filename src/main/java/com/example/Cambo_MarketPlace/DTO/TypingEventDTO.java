@@ -0,0 +1,7 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+/**
+ * Client -> /app/chat.typing: userId started (typing=true) or stopped typing in the room
+ */
+public record TypingEventDTO(Long chatRoomId, Long userId, boolean typing) {
+}
@@ -0,0 +1,15 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+import java.util.List;
+
+/**
+ * Coalesced broadcast on /topic/chatroom/{id} (type TYPING): everyone currently typing
+ */
+public record TypingStateDTO(String type, Long chatRoomId, List<Long> userIds) {
+
+    public static final String TYPE = "TYPING";
+
+    public TypingStateDTO(Long chatRoomId, List<Long> userIds) {
+        this(TYPE, chatRoomId, userIds);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.Cambo_MarketPlace.DTO;
+
+/**
+ * Badge update pushed on /topic/user/{id}/notifications (type UNREAD)
+ */
+public record UnreadCountDTO(String type, Long chatRoomId, long unreadCount) {
+
+    public static final String TYPE = "UNREAD";
+
+    public UnreadCountDTO(Long chatRoomId, long unreadCount) {
+        this(TYPE, chatRoomId, unreadCount);
+    }
+}
@@ -12,7 +12,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "chat_rooms")
+@Table(name = "chat_rooms", indexes = {
+        @Index(name = "idx_chat_rooms_buyer", columnList = "buyer_id"),
+        @Index(name = "idx_chat_rooms_seller", columnList = "seller_id")
+}, uniqueConstraints = {
+        // One room per buyer/seller/product; also backs the upsert in ChatRoomRepository
+        @UniqueConstraint(name = "uk_chat_rooms_product_buyer_seller",
+                columnNames = {"product_id", "buyer_id", "seller_id"})
+})
 public class ChatRoom {
 
     @Id
@@ -33,6 +40,17 @@ public class ChatRoom {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Last message each participant has read, as (sentAt, id) like the history order:
+    // ids come from per-node allocation blocks, so on their own they are not send order.
+    // Null means nothing read yet
+    private LocalDateTime buyerLastReadSentAt;
+
+    private Long buyerLastReadMessageId;
+
+    private LocalDateTime sellerLastReadSentAt;
+
+    private Long sellerLastReadMessageId;
+
     @OneToMany(mappedBy = "chatRoom", cascade = CascadeType.ALL)
     private List<Message> messages;
 
@@ -77,6 +95,38 @@ public class ChatRoom {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getBuyerLastReadSentAt() {
+        return buyerLastReadSentAt;
+    }
+
+    public void setBuyerLastReadSentAt(LocalDateTime buyerLastReadSentAt) {
+        this.buyerLastReadSentAt = buyerLastReadSentAt;
+    }
+
+    public Long getBuyerLastReadMessageId() {
+        return buyerLastReadMessageId;
+    }
+
+    public void setBuyerLastReadMessageId(Long buyerLastReadMessageId) {
+        this.buyerLastReadMessageId = buyerLastReadMessageId;
+    }
+
+    public LocalDateTime getSellerLastReadSentAt() {
+        return sellerLastReadSentAt;
+    }
+
+    public void setSellerLastReadSentAt(LocalDateTime sellerLastReadSentAt) {
+        this.sellerLastReadSentAt = sellerLastReadSentAt;
+    }
+
+    public Long getSellerLastReadMessageId() {
+        return sellerLastReadMessageId;
+    }
+
+    public void setSellerLastReadMessageId(Long sellerLastReadMessageId) {
+        this.sellerLastReadMessageId = sellerLastReadMessageId;
+    }
+
     public List<Message> getMessages() {
         return messages;
     }
@@ -14,16 +14,29 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // Latest message and unread counts per room
+        @Index(name = "idx_messages_room_id", columnList = "chat_room_id, id"),
+        // Keyset pagination of a room's history
+        @Index(name = "idx_messages_room_sent_id", columnList = "chat_room_id, sent_at, id")
+})
 public class Message {
 
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched and ids
+    // can be handed out before the row is written (see MessageIdAllocator)
+    public static final String ID_SEQUENCE = "messages_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(columnDefinition = "TEXT")
@@ -9,22 +9,34 @@ package com.example.Cambo_MarketPlace.Models;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.example.Cambo_MarketPlace.Service.ProductCacheInvalidator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Keyset pagination on (created_at, id), optionally narrowed by status or seller
+        @Index(name = "idx_products_created_id", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_products_status_created_id", columnList = "status, created_at DESC, id DESC"),
+        @Index(name = "idx_products_seller_created_id", columnList = "seller_id, created_at DESC, id DESC"),
+        // Incremental catalog export (updatedSince)
+        @Index(name = "idx_products_updated_id", columnList = "updated_at, id")
+})
+@EntityListeners(ProductCacheInvalidator.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
 
@@ -43,6 +55,10 @@ public class Product {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Existing databases get the column, backfill and NOT NULL from ProductUpdatedAtMigration
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
     @ManyToOne
     @JoinColumn(name = "seller_id")
     private User seller;
@@ -104,6 +120,19 @@ public class Product {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @PreUpdate
+    void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     public User getSeller() {
         return seller;
     }
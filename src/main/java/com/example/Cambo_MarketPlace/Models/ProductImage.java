@@ -6,17 +6,24 @@
 package com.example.Cambo_MarketPlace.Models;
 
 
+import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "product_images")
+@Table(name = "product_images", indexes = {
+        @Index(name = "idx_product_images_product_position", columnList = "product_id, position"),
+        @Index(name = "idx_product_images_original_key", columnList = "original_key")
+})
 public class ProductImage {
 
     @Id
@@ -25,9 +32,128 @@ public class ProductImage {
 
     private String imageUrl;
 
-    @ManyToOne
+    // Blob keys (sha256 + extension) of the upload and its thumbnails
+    @Column(length = 70)
+    private String originalKey;
+
+    @Column(length = 70)
+    private String smallKey;
+
+    @Column(length = 70)
+    private String mediumKey;
+
+    @Column(length = 70)
+    private String largeKey;
+
+    private Integer width;
+
+    private Integer height;
+
+    // 0 = primary image
+    private int position;
+
+    private String status; // PROCESSING / READY / FAILED
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
     // getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getOriginalKey() {
+        return originalKey;
+    }
+
+    public void setOriginalKey(String originalKey) {
+        this.originalKey = originalKey;
+    }
+
+    public String getSmallKey() {
+        return smallKey;
+    }
+
+    public void setSmallKey(String smallKey) {
+        this.smallKey = smallKey;
+    }
+
+    public String getMediumKey() {
+        return mediumKey;
+    }
+
+    public void setMediumKey(String mediumKey) {
+        this.mediumKey = mediumKey;
+    }
+
+    public String getLargeKey() {
+        return largeKey;
+    }
+
+    public void setLargeKey(String largeKey) {
+        this.largeKey = largeKey;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
 }
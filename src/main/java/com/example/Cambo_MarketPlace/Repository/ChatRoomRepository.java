@@ -1,11 +1,17 @@
 package com.example.Cambo_MarketPlace.Repository;
 
+import com.example.Cambo_MarketPlace.DTO.ChatRoomMembership;
+import com.example.Cambo_MarketPlace.DTO.ChatRoomSummaryDTO;
 import com.example.Cambo_MarketPlace.Models.ChatRoom;
 import com.example.Cambo_MarketPlace.Models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +21,68 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     // Find all chat rooms for a specific user (as buyer or seller)
     @Query("SELECT c FROM ChatRoom c WHERE c.buyer.id = :userId OR c.seller.id = :userId ORDER BY c.createdAt DESC")
     List<ChatRoom> findByUserId(Long userId);
+
+    // Participants of a room, without loading the room or its users
+    @Query("SELECT new com.example.Cambo_MarketPlace.DTO.ChatRoomMembership(c.id, c.buyer.id, c.seller.id, c.product.id)"
+            + " FROM ChatRoom c WHERE c.id = :chatRoomId")
+    Optional<ChatRoomMembership> findMembershipById(Long chatRoomId);
+
+    // Ids only of a user's chat rooms, without loading the rooms
+    @Query("SELECT c.id FROM ChatRoom c WHERE c.buyer.id = :userId OR c.seller.id = :userId ORDER BY c.createdAt DESC")
+    List<Long> findIdsByUserId(Long userId);
+
+    // User's inbox in a single round trip: participants, product, latest message and
+    // unread count (messages from the other party after this user's read marker),
+    // most recently active rooms first
+    @Query("SELECT new com.example.Cambo_MarketPlace.DTO.ChatRoomSummaryDTO("
+            + " c.id, b.id, b.username, s.id, s.username, p.id, p.title,"
+            + " m.content, m.sentAt, m.sender.id,"
+            + " (SELECT COUNT(u) FROM Message u WHERE u.chatRoom = c AND u.sender.id <> :userId"
+            + "   AND (CASE WHEN b.id = :userId THEN c.buyerLastReadSentAt ELSE c.sellerLastReadSentAt END IS NULL"
+            + "     OR u.sentAt > CASE WHEN b.id = :userId THEN c.buyerLastReadSentAt ELSE c.sellerLastReadSentAt END"
+            + "     OR (u.sentAt = CASE WHEN b.id = :userId THEN c.buyerLastReadSentAt ELSE c.sellerLastReadSentAt END"
+            + "       AND u.id > CASE WHEN b.id = :userId THEN c.buyerLastReadMessageId"
+            + "                       ELSE c.sellerLastReadMessageId END))))"
+            + " FROM ChatRoom c JOIN c.buyer b JOIN c.seller s LEFT JOIN c.product p"
+            + " LEFT JOIN Message m ON m.chatRoom = c"
+            + "   AND m.id = (SELECT MAX(l.id) FROM Message l WHERE l.chatRoom = c)"
+            + " WHERE b.id = :userId OR s.id = :userId"
+            + " ORDER BY COALESCE(m.sentAt, c.createdAt) DESC, c.id DESC")
+    List<ChatRoomSummaryDTO> findInbox(Long userId, Pageable pageable);
     
+    // Creates the room only if the product exists, is owned by the seller (or has no seller)
+    // and no room exists yet. ON CONFLICT turns a concurrent duplicate into a no-op; the
+    // NOT EXISTS keeps the common "room already there" case from consuming an id.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO chat_rooms (product_id, buyer_id, seller_id, created_at)"
+            + " SELECT p.id, :buyerId, :sellerId, :createdAt FROM products p"
+            + " WHERE p.id = :productId AND (p.seller_id = :sellerId OR p.seller_id IS NULL)"
+            + " AND NOT EXISTS (SELECT 1 FROM chat_rooms c WHERE c.product_id = :productId"
+            + "   AND c.buyer_id = :buyerId AND c.seller_id = :sellerId)"
+            + " ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Long productId, Long buyerId, Long sellerId, LocalDateTime createdAt);
+
+    // Room with buyer, seller and product in one query
+    @Query("SELECT c FROM ChatRoom c JOIN FETCH c.buyer JOIN FETCH c.seller LEFT JOIN FETCH c.product p"
+            + " WHERE p.id = :productId AND c.buyer.id = :buyerId AND c.seller.id = :sellerId")
+    Optional<ChatRoom> findWithParticipants(Long productId, Long buyerId, Long sellerId);
+
+    // Read markers only ever move forward in (sentAt, id) order, even if flushes arrive out of order
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatRoom c SET c.buyerLastReadSentAt = :sentAt, c.buyerLastReadMessageId = :messageId"
+            + " WHERE c.id = :chatRoomId AND (c.buyerLastReadSentAt IS NULL OR c.buyerLastReadSentAt < :sentAt"
+            + "   OR (c.buyerLastReadSentAt = :sentAt AND c.buyerLastReadMessageId < :messageId))")
+    int advanceBuyerLastRead(Long chatRoomId, LocalDateTime sentAt, long messageId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatRoom c SET c.sellerLastReadSentAt = :sentAt, c.sellerLastReadMessageId = :messageId"
+            + " WHERE c.id = :chatRoomId AND (c.sellerLastReadSentAt IS NULL OR c.sellerLastReadSentAt < :sentAt"
+            + "   OR (c.sellerLastReadSentAt = :sentAt AND c.sellerLastReadMessageId < :messageId))")
+    int advanceSellerLastRead(Long chatRoomId, LocalDateTime sentAt, long messageId);
+
     // Find chat room between buyer and seller for a specific product
     Optional<ChatRoom> findByProductIdAndBuyerIdAndSellerId(Long productId, Long buyerId, Long sellerId);
     
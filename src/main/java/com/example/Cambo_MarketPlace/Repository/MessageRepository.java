@@ -1,17 +1,53 @@
 package com.example.Cambo_MarketPlace.Repository;
 
+import com.example.Cambo_MarketPlace.DTO.ChatMessageDTO;
 import com.example.Cambo_MarketPlace.Models.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
+
+    String HISTORY_SELECT = "SELECT new com.example.Cambo_MarketPlace.DTO.ChatMessageDTO("
+            + "m.id, m.chatRoom.id, s.id, s.username, m.content, m.sentAt)"
+            + " FROM Message m JOIN m.sender s WHERE m.chatRoom.id = :chatRoomId";
     
     // Find all messages in a chat room, ordered by sent time
     List<Message> findByChatRoomIdOrderBySentAtAsc(Long chatRoomId);
     
-    // Find recent messages in a chat room (useful for pagination)
-    List<Message> findTop50ByChatRoomIdOrderBySentAtDesc(Long chatRoomId);
+    // Most recent messages in a chat room, newest first, with the sender's username joined in
+    @Query(HISTORY_SELECT + " ORDER BY m.sentAt DESC, m.id DESC")
+    List<ChatMessageDTO> findLatest(Long chatRoomId, Limit limit);
+
+    // Messages older than the (sentAt, id) cursor, newest first ("load older")
+    @Query(HISTORY_SELECT
+            + " AND (m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id))"
+            + " ORDER BY m.sentAt DESC, m.id DESC")
+    List<ChatMessageDTO> findBefore(Long chatRoomId, LocalDateTime sentAt, Long id, Limit limit);
+
+    // Messages newer than the (sentAt, id) cursor, oldest first (catch-up after reconnect)
+    @Query(HISTORY_SELECT
+            + " AND (m.sentAt > :sentAt OR (m.sentAt = :sentAt AND m.id > :id))"
+            + " ORDER BY m.sentAt ASC, m.id ASC")
+    List<ChatMessageDTO> findAfter(Long chatRoomId, LocalDateTime sentAt, Long id, Limit limit);
+
+    // Unread for the reader: the other participant's messages after both the stored read
+    // marker and the after position, and before the before position, all in the history's
+    // (sentAt, id) order; served by idx_messages_room_sent_id
+    @Query("SELECT COUNT(m) FROM Message m JOIN m.chatRoom c"
+            + " WHERE c.id = :chatRoomId AND m.sender.id <> :readerId"
+            + " AND (m.sentAt > :afterSentAt OR (m.sentAt = :afterSentAt AND m.id > :afterId))"
+            + " AND (m.sentAt < :beforeSentAt OR (m.sentAt = :beforeSentAt AND m.id < :beforeId))"
+            + " AND (CASE WHEN c.buyer.id = :readerId THEN c.buyerLastReadSentAt ELSE c.sellerLastReadSentAt END IS NULL"
+            + "   OR m.sentAt > CASE WHEN c.buyer.id = :readerId THEN c.buyerLastReadSentAt ELSE c.sellerLastReadSentAt END"
+            + "   OR (m.sentAt = CASE WHEN c.buyer.id = :readerId THEN c.buyerLastReadSentAt ELSE c.sellerLastReadSentAt END"
+            + "     AND m.id > CASE WHEN c.buyer.id = :readerId THEN c.buyerLastReadMessageId"
+            + "                     ELSE c.sellerLastReadMessageId END))")
+    long countUnread(Long chatRoomId, Long readerId, LocalDateTime afterSentAt, long afterId,
+                     LocalDateTime beforeSentAt, long beforeId);
 }
@@ -0,0 +1,54 @@
+package com.example.Cambo_MarketPlace.Repository;
+
+/**
+ * Optional catalog filters; a null field means "no restriction"
+ */
+public class ProductFilter {
+    private String status;
+    private Double minPrice;
+    private Double maxPrice;
+    private Long sellerId;
+
+    public ProductFilter() {
+    }
+
+    public ProductFilter(String status, Double minPrice, Double maxPrice, Long sellerId) {
+        this.status = status;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.sellerId = sellerId;
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(Long sellerId) {
+        this.sellerId = sellerId;
+    }
+}
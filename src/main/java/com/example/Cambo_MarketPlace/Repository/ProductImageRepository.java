@@ -0,0 +1,56 @@
+package com.example.Cambo_MarketPlace.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.Cambo_MarketPlace.Models.ProductImage;
+
+@Repository
+public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+
+    /** Primary image keys of one product, read without loading the entity */
+    interface PrimaryImageRow {
+        Long getProductId();
+
+        Long getId();
+
+        String getOriginalKey();
+
+        String getSmallKey();
+    }
+
+    List<ProductImage> findByProductIdOrderByPositionAscIdAsc(Long productId);
+
+    // Primary images of a whole page in one query; lowest id first if two share position 0
+    @Query("SELECT i.product.id AS productId, i.id AS id, i.originalKey AS originalKey, i.smallKey AS smallKey"
+            + " FROM ProductImage i WHERE i.product.id IN :productIds AND i.position = 0 ORDER BY i.id")
+    List<PrimaryImageRow> findPrimaryImages(Collection<Long> productIds);
+
+    long countByProductId(Long productId);
+
+    // Thumbnails already generated for identical content (keys are content hashes)
+    Optional<ProductImage> findFirstByOriginalKeyAndStatus(String originalKey, String status);
+
+    // Written by the thumbnail workers without loading the entity
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductImage i SET i.status = 'READY', i.originalKey = :originalKey, i.imageUrl = :imageUrl,"
+            + " i.smallKey = :smallKey, i.mediumKey = :mediumKey, i.largeKey = :largeKey,"
+            + " i.width = :width, i.height = :height WHERE i.id = :id")
+    int markReady(Long id, String originalKey, String imageUrl, String smallKey, String mediumKey, String largeKey,
+                  int width, int height);
+
+    // REQUIRES_NEW: never joins a caller's transaction, so FAILED is committed even if that one rolls back
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE ProductImage i SET i.status = 'FAILED' WHERE i.id = :id")
+    int markFailed(Long id);
+}
@@ -1,13 +1,84 @@
 package com.example.Cambo_MarketPlace.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.Cambo_MarketPlace.DTO.ProductDetailDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductExportDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductSearchHit;
 import com.example.Cambo_MarketPlace.Models.Product;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    // Weighted document used by full-text search; must match the GIN index expression exactly.
+    // 'simple' keeps Khmer and mixed-language listings searchable without stemming.
+    String SEARCH_VECTOR = "(setweight(to_tsvector('simple', coalesce(title, '')), 'A')"
+            + " || setweight(to_tsvector('simple', coalesce(description, '')), 'B'))";
+
+    // Rows pulled per round trip by the export cursor
+    String EXPORT_FETCH_SIZE = "1000";
+
+    String EXPORT_SELECT = "SELECT new com.example.Cambo_MarketPlace.DTO.ProductExportDTO("
+            + "p.id, p.title, p.description, p.price, p.status, p.createdAt, p.updatedAt, p.seller.id)"
+            + " FROM Product p";
+
     List<Product> findBySellerId(Long sellerId);
+
+    // SELECT ... FOR UPDATE: serializes per-product writes such as assigning image positions
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(Long id);
+
+    @Query("SELECT new com.example.Cambo_MarketPlace.DTO.ProductDetailDTO("
+            + "p.id, p.title, p.description, p.price, p.status, p.createdAt, p.updatedAt, s.id, s.username)"
+            + " FROM Product p LEFT JOIN p.seller s WHERE p.id = :id")
+    Optional<ProductDetailDTO> findDetail(Long id);
+
+    // Forward-only cursors for the catalog export; must be consumed inside a transaction
+    // so the PostgreSQL driver honours the fetch size instead of buffering every row
+    @Query(EXPORT_SELECT + " ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ProductExportDTO> streamForExport();
+
+    @Query(EXPORT_SELECT + " WHERE p.updatedAt >= :since ORDER BY p.updatedAt, p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ProductExportDTO> streamForExportUpdatedSince(LocalDateTime since);
+
+    // Ranked full-text search; headlines are only computed for the rows of the requested page
+    @Query(value = "SELECT r.id AS id, r.title AS title, r.price AS price, r.status AS status,"
+            + " r.created_at AS \"createdAt\", r.seller_id AS \"sellerId\", r.rank AS rank,"
+            + " ts_headline('simple', coalesce(r.title, ''), r.q, 'HighlightAll=true,StartSel=<mark>,StopSel=</mark>') AS \"titleHighlight\","
+            + " ts_headline('simple', coalesce(r.description, ''), r.q, 'MaxFragments=2,MaxWords=20,MinWords=5,StartSel=<mark>,StopSel=</mark>') AS snippet"
+            + " FROM ("
+            + "   SELECT p.id, p.title, p.description, p.price, p.status, p.created_at, p.seller_id, q,"
+            + "          CAST(ts_rank_cd(" + SEARCH_VECTOR + ", q) AS double precision) AS rank"
+            + "   FROM products p, websearch_to_tsquery('simple', :query) q"
+            + "   WHERE " + SEARCH_VECTOR + " @@ q"
+            + "     AND (CAST(:status AS text) IS NULL OR p.status = :status)"
+            + "   ORDER BY rank DESC, p.id DESC"
+            + "   LIMIT :limit OFFSET :offset"
+            + " ) r"
+            + " ORDER BY r.rank DESC, r.id DESC",
+            nativeQuery = true)
+    List<ProductSearchHit> search(String query, String status, int limit, int offset);
 }
@@ -0,0 +1,12 @@
+package com.example.Cambo_MarketPlace.Repository;
+
+import java.util.List;
+
+import com.example.Cambo_MarketPlace.DTO.KeysetCursor;
+import com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO;
+
+public interface ProductRepositoryCustom {
+
+    // Newest-first catalog page strictly after the cursor (null cursor = first page)
+    List<ProductSummaryDTO> findCatalogPage(ProductFilter filter, KeysetCursor after, int limit);
+}
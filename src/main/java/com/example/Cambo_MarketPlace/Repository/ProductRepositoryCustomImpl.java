@@ -0,0 +1,66 @@
+package com.example.Cambo_MarketPlace.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.Cambo_MarketPlace.DTO.KeysetCursor;
+import com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Builds the catalog query with only the predicates that are actually set,
+ * so PostgreSQL can pick the matching composite index instead of planning
+ * around "(:param IS NULL OR ...)" branches. Rows are projected straight
+ * into ProductSummaryDTO, so no entities enter the persistence context.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummaryDTO> findCatalogPage(ProductFilter filter, KeysetCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT new com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO("
+                + "p.id, p.title, p.price, p.status, p.createdAt, s.id, s.username)"
+                + " FROM Product p LEFT JOIN p.seller s WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter != null) {
+            if (filter.getStatus() != null) {
+                jpql.append(" AND p.status = :status");
+                params.put("status", filter.getStatus());
+            }
+            if (filter.getSellerId() != null) {
+                jpql.append(" AND p.seller.id = :sellerId");
+                params.put("sellerId", filter.getSellerId());
+            }
+            if (filter.getMinPrice() != null) {
+                jpql.append(" AND p.price >= :minPrice");
+                params.put("minPrice", filter.getMinPrice());
+            }
+            if (filter.getMaxPrice() != null) {
+                jpql.append(" AND p.price <= :maxPrice");
+                params.put("maxPrice", filter.getMaxPrice());
+            }
+        }
+
+        // Keyset predicate on (created_at, id), matching the ORDER BY below
+        if (after != null) {
+            jpql.append(" AND (p.createdAt < :cursorCreatedAt")
+                .append(" OR (p.createdAt = :cursorCreatedAt AND p.id < :cursorId))");
+            params.put("cursorCreatedAt", after.getTimestamp());
+            params.put("cursorId", after.getId());
+        }
+
+        jpql.append(" ORDER BY p.createdAt DESC, p.id DESC");
+
+        TypedQuery<ProductSummaryDTO> query = entityManager.createQuery(jpql.toString(), ProductSummaryDTO.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
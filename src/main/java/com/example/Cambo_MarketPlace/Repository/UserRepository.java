@@ -2,8 +2,12 @@ package com.example.Cambo_MarketPlace.Repository;
 
 import com.example.Cambo_MarketPlace.Models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
+
+    // Which of username/email are already taken, in one indexed lookup without loading users
+    @Query("SELECT CASE WHEN u.username = :username THEN 'username' ELSE 'email' END"
+            + " FROM User u WHERE u.username = :username OR u.email = :email")
+    List<String> findTakenFields(String username, String email);
+
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(String email, String password);
 }
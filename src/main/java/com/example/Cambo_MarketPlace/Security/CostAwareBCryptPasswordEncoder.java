@@ -0,0 +1,32 @@
+package com.example.Cambo_MarketPlace.Security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder that reports any hash whose cost differs from the configured one
+ * (up or down) as needing an upgrade, so DaoAuthenticationProvider rehashes it on
+ * the next successful login. The stock encoder only upgrades to a higher cost.
+ */
+public class CostAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private final int strength;
+
+    public CostAwareBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    // upgradeEncoding itself is final and handles null/empty before delegating here
+    @Override
+    protected boolean upgradeEncodingNonNull(String encodedPassword) {
+        // Format: $2a$10$<salt+hash>
+        if (encodedPassword.length() < 7 || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
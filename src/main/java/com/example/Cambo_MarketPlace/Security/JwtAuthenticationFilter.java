@@ -1,5 +1,9 @@
 package com.example.Cambo_MarketPlace.Security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,9 +25,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtUtil jwtUtil;
+    private final Timer parseTimer;
+    private final Counter rejectedTokens;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
+        this.parseTimer = Timer.builder("auth.jwt.parse")
+                .description("Bearer token verification, including claims cache lookups")
+                .register(meterRegistry);
+        this.rejectedTokens = Counter.builder("auth.jwt.rejected")
+                .description("Requests rejected with an invalid or expired token")
+                .register(meterRegistry);
+    }
+
+    // Auth endpoints are permitAll and must ignore the bearer token: refresh is called
+    // exactly when the access token has expired, and clients often still send it
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/api/auth/");
     }
 
     @Override
@@ -32,25 +51,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Skip auth endpoints
-        if (request.getRequestURI().startsWith("/auth")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
         String header = request.getHeader("Authorization");
 
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
             try {
-                String email = jwtUtil.extractUsername(token);
+                // Verifies signature and expiry; one parse per request at most
+                Claims claims = parseTimer.record(() -> jwtUtil.parseClaims(token));
+                String email = claims.getSubject();
 
                 if (email != null &&
-                        SecurityContextHolder.getContext().getAuthentication() == null &&
-                        jwtUtil.validateToken(token)) {
+                        SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                    String role = jwtUtil.extractRole(token);
+                    String role = claims.get("role", String.class);
                     String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
 
                     UsernamePasswordAuthenticationToken auth =
@@ -64,6 +78,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             } catch (Exception e) {
                 logger.warn("JWT authentication failed: {}", e.getMessage());
+                rejectedTokens.increment();
 
                 // Respond with 401 Unauthorized
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
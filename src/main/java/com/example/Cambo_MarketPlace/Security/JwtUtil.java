@@ -1,48 +1,168 @@
 package com.example.Cambo_MarketPlace.Security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
-    private static final Key KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private static final long EXPIRATION = 1000 * 60 * 60 * 24; // 24h
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+
+    // Signing keys by key id; tokens carry the kid so old keys keep verifying during rotation
+    private final Map<String, Key> keys;
+    private final String activeKid;
+    private final long accessTokenTtlMs;
+
+    // Immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+
+    // Verified claims keyed by SHA-256 of the token; each entry expires with its token
+    private final Cache<String, Claims> claimsCache;
+
+    public JwtUtil(@Value("${app.jwt.keys:}") String keySpec,
+                   @Value("${app.jwt.active-kid:}") String activeKid,
+                   @Value("${app.jwt.access-token-ttl-minutes:15}") long accessTokenTtlMinutes,
+                   @Value("${app.jwt.claims-cache.max-size:100000}") long claimsCacheMaxSize) {
+        this.keys = parseKeys(keySpec);
+        this.activeKid = activeKid == null || activeKid.isBlank()
+                ? keys.keySet().iterator().next()
+                : activeKid.trim();
+        if (!keys.containsKey(this.activeKid)) {
+            throw new IllegalStateException("app.jwt.active-kid '" + this.activeKid + "' is not in app.jwt.keys");
+        }
+        this.accessTokenTtlMs = TimeUnit.MINUTES.toMillis(accessTokenTtlMinutes);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keys.get(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     public String generateToken(String username, String role) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKid)
                 .setSubject(username)
                 .claim("role", role)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
-                .signWith(KEY)
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtlMs))
+                .signWith(keys.get(activeKid))
                 .compact();
     }
 
+    /**
+     * Verify the token and return its claims, parsing each distinct token only once
+     * while it is valid. Throws a JwtException if the token is invalid or expired.
+     */
+    public Claims parseClaims(String token) {
+        String key = sha256(token);
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            claimsCache.put(key, claims);
+        }
+        return claims;
+    }
+
+    public long getAccessTokenTtlSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(accessTokenTtlMs);
+    }
+
     public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public String extractRole(String token) {
-        return getClaims(token).get("role", String.class);
+        return parseClaims(token).get("role", String.class);
     }
 
     public boolean validateToken(String token) {
-        getClaims(token); // throws exception if invalid
+        parseClaims(token); // throws exception if invalid
         return true;
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * "kid1:base64Secret,kid2:base64Secret"; blank falls back to a random per-process key,
+     * which only suits a single dev instance since every restart invalidates all tokens.
+     */
+    private static Map<String, Key> parseKeys(String keySpec) {
+        Map<String, Key> keys = new LinkedHashMap<>();
+        if (keySpec == null || keySpec.isBlank()) {
+            logger.warn("app.jwt.keys is not set; using a random signing key, tokens will not survive a restart");
+            keys.put("ephemeral", Keys.secretKeyFor(SignatureAlgorithm.HS256));
+            return keys;
+        }
+        for (String entry : keySpec.split(",")) {
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalStateException("app.jwt.keys entries must be kid:base64Secret");
+            }
+            // Rejects secrets shorter than 256 bits
+            keys.put(parts[0].trim(), Keys.hmacShaKeyFor(Base64.getDecoder().decode(parts[1].trim())));
+        }
+        return keys;
+    }
+
+    static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
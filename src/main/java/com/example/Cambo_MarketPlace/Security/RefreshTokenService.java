@@ -0,0 +1,83 @@
+package com.example.Cambo_MarketPlace.Security;
+
+import com.example.Cambo_MarketPlace.Models.RefreshToken;
+import com.example.Cambo_MarketPlace.Models.User;
+import com.example.Cambo_MarketPlace.Repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and rotates opaque refresh tokens. Renewing a session costs one indexed
+ * lookup and an HMAC signature instead of a BCrypt password check.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long ttlDays;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${app.jwt.refresh-token-ttl-days:30}") long ttlDays) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttlDays = ttlDays;
+    }
+
+    /** A consumed token's owner and the refresh token replacing it */
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    /**
+     * Issue a new refresh token for the user and return the raw value for the client.
+     */
+    @Transactional
+    public String issue(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        // Keeps the table compact without a background sweeper
+        refreshTokenRepository.deleteExpiredByUserId(user.getId(), now);
+
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(JwtUtil.sha256(rawToken));
+        refreshToken.setUser(user);
+        refreshToken.setExpiresAt(now.plusDays(ttlDays));
+        refreshTokenRepository.save(refreshToken);
+        return rawToken;
+    }
+
+    /**
+     * Consume a refresh token and issue its replacement. Empty if the token is unknown,
+     * expired or was already used (including by a concurrent request).
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String rawToken) {
+        String tokenHash = JwtUtil.sha256(rawToken);
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (stored.isEmpty() || refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            return Optional.empty();
+        }
+        if (stored.get().getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        User user = stored.get().getUser();
+        return Optional.of(new Rotation(user, issue(user)));
+    }
+
+    public void revoke(String rawToken) {
+        refreshTokenRepository.deleteByTokenHash(JwtUtil.sha256(rawToken));
+    }
+
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Content-addressed blob storage: a blob's key is the SHA-256 of its bytes plus a
+ * file extension, so storing identical content twice keeps a single copy and a key
+ * never points at different bytes. The default implementation is the local
+ * filesystem; another store (e.g. object storage) can be plugged in with
+ * app.images.storage.
+ */
+public interface BlobStore {
+
+    Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|bmp)");
+
+    /**
+     * Store content (no-op if already present) and return its key
+     */
+    String put(byte[] content, String extension);
+
+    /**
+     * The blob for a key; a file-backed Resource lets callers serve it zero-copy
+     */
+    Optional<Resource> get(String key);
+
+    /**
+     * Store an upload that must not be served yet (e.g. before its metadata is stripped).
+     * Staged blobs live outside the key space, so get() never returns them.
+     */
+    String stage(byte[] content);
+
+    /**
+     * A staged upload, for the worker that processes it
+     */
+    Optional<Resource> getStaged(String stagedKey);
+
+    void deleteStaged(String stagedKey);
+
+    static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+}
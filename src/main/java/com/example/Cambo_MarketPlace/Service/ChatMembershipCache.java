@@ -0,0 +1,53 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.Cambo_MarketPlace.DTO.ChatRoomMembership;
+import com.example.Cambo_MarketPlace.Repository.ChatRoomRepository;
+import com.example.Cambo_MarketPlace.Repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+/**
+ * Bounded read-through cache of what the chat send path needs:
+ * room id -> participants, and user id -> username.
+ * Misses are loaded with narrow projection queries; unknown ids are not cached.
+ * Room participants never change after creation, so only usernames need evicting.
+ */
+@Component
+public class ChatMembershipCache {
+
+    private final LoadingCache<Long, ChatRoomMembership> rooms;
+    private final LoadingCache<Long, String> usernames;
+
+    public ChatMembershipCache(ChatRoomRepository chatRoomRepository,
+                               UserRepository userRepository,
+                               @Value("${app.chat.cache.max-rooms:100000}") long maxRooms,
+                               @Value("${app.chat.cache.max-users:100000}") long maxUsers,
+                               @Value("${app.chat.cache.ttl-minutes:30}") long ttlMinutes) {
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build(id -> chatRoomRepository.findMembershipById(id).orElse(null));
+        this.usernames = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build(id -> userRepository.findUsernameById(id).orElse(null));
+    }
+
+    public Optional<ChatRoomMembership> getRoom(Long chatRoomId) {
+        return Optional.ofNullable(rooms.get(chatRoomId));
+    }
+
+    public Optional<String> getUsername(Long userId) {
+        return Optional.ofNullable(usernames.get(userId));
+    }
+
+    public void evictUser(Long userId) {
+        usernames.invalidate(userId);
+    }
+}
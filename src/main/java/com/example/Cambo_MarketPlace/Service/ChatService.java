@@ -1,18 +1,26 @@
 package com.example.Cambo_MarketPlace.Service;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.Cambo_MarketPlace.DTO.ChatMessageDTO;
+import com.example.Cambo_MarketPlace.DTO.ChatRoomMembership;
+import com.example.Cambo_MarketPlace.DTO.ChatRoomSummaryDTO;
+import com.example.Cambo_MarketPlace.DTO.CursorPageDTO;
+import com.example.Cambo_MarketPlace.DTO.KeysetCursor;
 import com.example.Cambo_MarketPlace.Models.ChatRoom;
 import com.example.Cambo_MarketPlace.Models.Message;
-import com.example.Cambo_MarketPlace.Models.Product;
-import com.example.Cambo_MarketPlace.Models.User;
 import com.example.Cambo_MarketPlace.Repository.ChatRoomRepository;
 import com.example.Cambo_MarketPlace.Repository.MessageRepository;
 import com.example.Cambo_MarketPlace.Repository.ProductRepository;
@@ -21,6 +29,11 @@ import com.example.Cambo_MarketPlace.Repository.UserRepository;
 @Service
 public class ChatService {
 
+    public static final int DEFAULT_INBOX_PAGE_SIZE = 20;
+    public static final int MAX_INBOX_PAGE_SIZE = 100;
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+    public static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     @Autowired
     private ChatRoomRepository chatRoomRepository;
 
@@ -33,6 +46,19 @@ public class ChatService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MessageIdAllocator messageIdAllocator;
+
+    @Autowired
+    private ChatMembershipCache chatMembershipCache;
+
+    @Autowired
+    private ReadStateService readStateService;
+
+    // Present only when app.chat.write-behind.enabled=true
+    @Autowired(required = false)
+    private MessageWriteBehindService messageWriteBehindService;
+
     /**
      * Get or create a chat room
      */
@@ -43,61 +69,56 @@ public class ChatService {
             throw new IllegalArgumentException("Buyer and seller cannot be the same person");
         }
         
-        Optional<ChatRoom> existingRoom = chatRoomRepository
-                .findByProductIdAndBuyerIdAndSellerId(productId, buyerId, sellerId);
-        
-        if (existingRoom.isPresent()) {
-            return existingRoom.get();
-        }
-        
-        // Fetch entities
-        Optional<Product> productOpt = productRepository.findById(productId);
-        Optional<User> buyerOpt = userRepository.findById(buyerId);
-        Optional<User> sellerOpt = userRepository.findById(sellerId);
-        
-        if (productOpt.isEmpty()) {
-            throw new RuntimeException("Product not found with id: " + productId);
+        // Inserts only if the product exists, belongs to the seller and the room is new;
+        // a concurrent double-tap hits the unique constraint and becomes a no-op
+        try {
+            chatRoomRepository.insertIfAbsent(productId, buyerId, sellerId, LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            if (isForeignKeyViolation(e)) {
+                throw new IllegalArgumentException("Buyer or seller not found");
+            }
+            throw e;
         }
-        if (buyerOpt.isEmpty()) {
-            throw new RuntimeException("Buyer not found with id: " + buyerId);
-        }
-        if (sellerOpt.isEmpty()) {
-            throw new RuntimeException("Seller not found with id: " + sellerId);
-        }
-        
-        // Validation: Ensure the seller is the actual owner of the product
-        Product product = productOpt.get();
-        if (product.getSeller() != null && !product.getSeller().getId().equals(sellerId)) {
-            throw new IllegalArgumentException("Seller ID does not match product owner");
+
+        return chatRoomRepository.findWithParticipants(productId, buyerId, sellerId)
+                .orElseThrow(() -> productRepository.existsById(productId)
+                        ? new IllegalArgumentException("Seller ID does not match product owner")
+                        : new RuntimeException("Product not found with id: " + productId));
+    }
+
+    // SQLSTATE 23503: a buyer_id/seller_id that references no user
+    private static boolean isForeignKeyViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && "23503".equals(sqlException.getSQLState())) {
+                return true;
+            }
         }
-        
-        // Create new chat room
-        ChatRoom chatRoom = new ChatRoom();
-        chatRoom.setProduct(productOpt.get());
-        chatRoom.setBuyer(buyerOpt.get());
-        chatRoom.setSeller(sellerOpt.get());
-        chatRoom.setCreatedAt(LocalDateTime.now());
-        
-        return chatRoomRepository.save(chatRoom);
+        return false;
     }
 
     /**
-     * Save a message to the database
+     * Save a message to the database (or queue it, in write-behind mode)
      */
     @Transactional
     public Message saveMessage(ChatMessageDTO messageDTO) {
-        Optional<ChatRoom> chatRoomOpt = chatRoomRepository.findById(messageDTO.getChatRoomId());
-        Optional<User> senderOpt = userRepository.findById(messageDTO.getSenderId());
-        
-        if (chatRoomOpt.isEmpty() || senderOpt.isEmpty()) {
+        // Membership and sender come from the cache; references avoid loading the entities
+        if (chatMembershipCache.getRoom(messageDTO.getChatRoomId()).isEmpty()
+                || chatMembershipCache.getUsername(messageDTO.getSenderId()).isEmpty()) {
             throw new RuntimeException("ChatRoom or User not found");
         }
         
         Message message = new Message();
         message.setContent(messageDTO.getContent());
-        message.setSender(senderOpt.get());
-        message.setChatRoom(chatRoomOpt.get());
+        message.setSender(userRepository.getReferenceById(messageDTO.getSenderId()));
+        message.setChatRoom(chatRoomRepository.getReferenceById(messageDTO.getChatRoomId()));
         message.setSentAt(LocalDateTime.now());
+
+        if (messageWriteBehindService != null) {
+            // Id is final now; the row is written by the next batch flush
+            message.setId(messageIdAllocator.nextId());
+            messageWriteBehindService.enqueue(message);
+            return message;
+        }
         
         return messageRepository.save(message);
     }
@@ -109,6 +130,51 @@ public class ChatService {
         return messageRepository.findByChatRoomIdOrderBySentAtAsc(chatRoomId);
     }
 
+    /**
+     * Get one page of a chat room's history, always in chronological order.
+     * With no cursor the latest messages are returned; "before" pages backwards
+     * (load older), "after" pages forwards (catch up). nextCursor continues in
+     * the same direction.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ChatMessageDTO> getMessageHistory(Long chatRoomId, String before, String after, int limit) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+        int pageSize = limit <= 0 ? DEFAULT_HISTORY_PAGE_SIZE : Math.min(limit, MAX_HISTORY_PAGE_SIZE);
+        // Fetch one extra row to know whether another page exists
+        Limit fetch = Limit.of(pageSize + 1);
+
+        KeysetCursor afterCursor = KeysetCursor.decode(after);
+        if (afterCursor != null) {
+            List<ChatMessageDTO> rows = messageRepository.findAfter(
+                    chatRoomId, afterCursor.getTimestamp(), afterCursor.getId(), fetch);
+            boolean hasMore = rows.size() > pageSize;
+            List<ChatMessageDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+            // Caught up: hand the same cursor back so the next poll doesn't fall back to the latest page
+            String nextCursor = items.isEmpty() ? after : cursorOf(items, items.size() - 1);
+            return new CursorPageDTO<>(List.copyOf(items), nextCursor, hasMore);
+        }
+
+        KeysetCursor beforeCursor = KeysetCursor.decode(before);
+        List<ChatMessageDTO> rows = beforeCursor == null
+                ? messageRepository.findLatest(chatRoomId, fetch)
+                : messageRepository.findBefore(chatRoomId, beforeCursor.getTimestamp(), beforeCursor.getId(), fetch);
+        boolean hasMore = rows.size() > pageSize;
+        List<ChatMessageDTO> items = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        // Queried newest first, returned oldest first
+        Collections.reverse(items);
+        return new CursorPageDTO<>(items, hasMore ? cursorOf(items, 0) : null, hasMore);
+    }
+
+    private static String cursorOf(List<ChatMessageDTO> items, int index) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        ChatMessageDTO message = items.get(index);
+        return new KeysetCursor(message.getSentAt(), message.getId()).encode();
+    }
+
     /**
      * Get all chat rooms for a user
      */
@@ -116,6 +182,30 @@ public class ChatService {
         return chatRoomRepository.findByUserId(userId);
     }
 
+    /**
+     * Get ids of all chat rooms for a user
+     */
+    public List<Long> getUserChatRoomIds(Long userId) {
+        return chatRoomRepository.findIdsByUserId(userId);
+    }
+
+    /**
+     * Get one page of a user's inbox, most recently active rooms first
+     */
+    @Transactional(readOnly = true)
+    public List<ChatRoomSummaryDTO> getUserInbox(Long userId, int page, int size) {
+        int pageSize = size <= 0 ? DEFAULT_INBOX_PAGE_SIZE : Math.min(size, MAX_INBOX_PAGE_SIZE);
+        List<ChatRoomSummaryDTO> inbox = chatRoomRepository.findInbox(userId, PageRequest.of(Math.max(page, 0), pageSize));
+        // In-memory counters are ahead of the stored read markers until the next flush
+        for (ChatRoomSummaryDTO room : inbox) {
+            Long unread = readStateService.getCachedUnread(room.getId(), userId);
+            if (unread != null) {
+                room.setUnreadCount(unread);
+            }
+        }
+        return inbox;
+    }
+
     /**
      * Get a specific chat room
      */
@@ -124,13 +214,23 @@ public class ChatService {
     }
 
     /**
-     * Convert Message entity to DTO
+     * Get who belongs to a chat room (cached)
+     */
+    public Optional<ChatRoomMembership> getChatRoomMembership(Long chatRoomId) {
+        return chatMembershipCache.getRoom(chatRoomId);
+    }
+
+    /**
+     * Convert Message entity to DTO; the sender's username comes from the cache
+     * so a reference-only sender is never initialized
      */
     public ChatMessageDTO convertToDTO(Message message) {
+        Long senderId = message.getSender().getId();
         ChatMessageDTO dto = new ChatMessageDTO();
+        dto.setId(message.getId());
         dto.setChatRoomId(message.getChatRoom().getId());
-        dto.setSenderId(message.getSender().getId());
-        dto.setSenderUsername(message.getSender().getUsername());
+        dto.setSenderId(senderId);
+        dto.setSenderUsername(chatMembershipCache.getUsername(senderId).orElse(null));
         dto.setContent(message.getContent());
         dto.setSentAt(message.getSentAt());
         dto.setType(ChatMessageDTO.MessageType.CHAT);
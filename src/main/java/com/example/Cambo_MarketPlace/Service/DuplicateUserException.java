@@ -0,0 +1,15 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Username or email is already registered.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateUserException extends RuntimeException {
+
+    public DuplicateUserException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the thumbnail workers are saturated; the upload should be retried later.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ImageProcessingRejectedException extends RuntimeException {
+
+    public ImageProcessingRejectedException(String message) {
+        super(message);
+    }
+}
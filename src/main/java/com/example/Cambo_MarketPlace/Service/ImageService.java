@@ -0,0 +1,222 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Cambo_MarketPlace.DTO.ProductImageDTO;
+import com.example.Cambo_MarketPlace.Models.Product;
+import com.example.Cambo_MarketPlace.Models.ProductImage;
+import com.example.Cambo_MarketPlace.Repository.ProductImageRepository;
+import com.example.Cambo_MarketPlace.Repository.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Product image uploads. The raw upload is staged in the BlobStore and the row is saved
+ * as PROCESSING; then a small dedicated pool decodes it, publishes the original re-encoded
+ * without metadata and writes the thumbnails, so request threads never spend CPU or heap
+ * on pixels. Identical originals reuse the existing thumbnails instead of resizing again.
+ */
+@Service
+public class ImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageService.class);
+
+    public static final String PROCESSING = "PROCESSING";
+    public static final String READY = "READY";
+    public static final String FAILED = "FAILED";
+
+    /** Longest edge in pixels of each generated size */
+    public enum ThumbnailSize {
+        SMALL(200), MEDIUM(600), LARGE(1200);
+
+        private final int maxEdge;
+
+        ThumbnailSize(int maxEdge) {
+            this.maxEdge = maxEdge;
+        }
+
+        public int getMaxEdge() {
+            return maxEdge;
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final BlobStore blobStore;
+    private final long maxPixels;
+    private final float jpegQuality;
+    private final float originalJpegQuality;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor pool;
+    private final Timer processTimer;
+    private final Counter failed;
+
+    public ImageService(ProductRepository productRepository,
+                        ProductImageRepository productImageRepository,
+                        BlobStore blobStore,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.images.max-pixels:16000000}") long maxPixels,
+                        @Value("${app.images.jpeg-quality:0.85}") float jpegQuality,
+                        @Value("${app.images.original-jpeg-quality:0.92}") float originalJpegQuality,
+                        @Value("${app.images.processing.threads:2}") int threads,
+                        @Value("${app.images.processing.queue-capacity:100}") int queueCapacity) {
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.blobStore = blobStore;
+        this.maxPixels = maxPixels;
+        this.jpegQuality = jpegQuality;
+        this.originalJpegQuality = originalJpegQuality;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("images.processing.queue.depth", pool, p -> p.getQueue().size())
+                .description("Uploaded images waiting for thumbnail generation")
+                .register(meterRegistry);
+        this.processTimer = Timer.builder("images.processing")
+                .description("Decode, resize and store all thumbnails of one image")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failed = Counter.builder("images.processing.failed")
+                .description("Images whose thumbnails could not be generated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Store an uploaded image for a product owned by ownerEmail; the published original and
+     * thumbnails follow asynchronously. The request thread only reads the image header and
+     * stages the raw bytes, and the transaction only inserts the row, so no JDBC connection
+     * is held during file I/O and no pixels are decoded outside the bounded pool.
+     */
+    public ProductImageDTO upload(Long productId, String ownerEmail, byte[] content) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+        if (product.getSeller() == null || !product.getSeller().getEmail().equals(ownerEmail)) {
+            throw new AccessDeniedException("Only the seller can add images to this product");
+        }
+        if (content == null || content.length == 0) {
+            throw new IllegalArgumentException("Image file is empty");
+        }
+        // Shed before storing anything rather than accepting work that can't be scheduled
+        if (pool.getQueue().remainingCapacity() == 0) {
+            throw new ImageProcessingRejectedException("Image processing is busy, please retry");
+        }
+
+        ImageResizer.ImageInfo info = ImageResizer.probe(content, maxPixels);
+        // Staged, not published: the raw upload may still carry EXIF/GPS metadata
+        String stagedKey = blobStore.stage(content);
+        ProductImage saved;
+        try {
+            saved = transactionTemplate.execute(status -> insert(productId, info));
+        } catch (RuntimeException e) {
+            blobStore.deleteStaged(stagedKey);
+            throw e;
+        }
+        // Committed by now, so the worker's update will find the row
+        schedule(saved.getId(), stagedKey, info);
+        return ProductImageDTO.from(saved, productId);
+    }
+
+    private ProductImage insert(Long productId, ImageResizer.ImageInfo info) {
+        // Row lock: concurrent uploads to the same product take positions one after another,
+        // so only one image can ever get position 0 (the primary image)
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+
+        ProductImage image = new ProductImage();
+        image.setProduct(product);
+        image.setWidth(info.width());
+        image.setHeight(info.height());
+        image.setPosition((int) productImageRepository.countByProductId(productId));
+        image.setStatus(PROCESSING);
+        return productImageRepository.save(image);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductImageDTO> getImages(Long productId) {
+        return productImageRepository.findByProductIdOrderByPositionAscIdAsc(productId).stream()
+                .map(image -> ProductImageDTO.from(image, productId))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void schedule(Long imageId, String stagedKey, ImageResizer.ImageInfo info) {
+        try {
+            pool.execute(() -> processTimer.record(() -> process(imageId, stagedKey, info)));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Thumbnail queue full, image {} marked as failed", imageId);
+            failed.increment();
+            productImageRepository.markFailed(imageId);
+            blobStore.deleteStaged(stagedKey);
+        }
+    }
+
+    private void process(Long imageId, String stagedKey, ImageResizer.ImageInfo info) {
+        try {
+            byte[] upload;
+            try (InputStream in = blobStore.getStaged(stagedKey)
+                    .orElseThrow(() -> new IllegalStateException("Staged upload missing: " + stagedKey))
+                    .getInputStream()) {
+                upload = in.readAllBytes();
+            }
+            // The original is served publicly, so it is re-encoded without EXIF/GPS or other metadata
+            ImageResizer.EncodedImage original = ImageResizer.stripMetadata(upload, info, originalJpegQuality);
+            String originalKey = blobStore.put(original.bytes(), original.extension());
+            BufferedImage source = original.image();
+
+            // Identical content was processed before: reuse its thumbnails
+            ProductImage processed = productImageRepository.findFirstByOriginalKeyAndStatus(originalKey, READY)
+                    .orElse(null);
+            String small = processed != null ? processed.getSmallKey() : storeThumbnail(source, ThumbnailSize.SMALL);
+            String medium = processed != null ? processed.getMediumKey() : storeThumbnail(source, ThumbnailSize.MEDIUM);
+            String large = processed != null ? processed.getLargeKey() : storeThumbnail(source, ThumbnailSize.LARGE);
+            productImageRepository.markReady(imageId, originalKey, ProductImageDTO.url(originalKey),
+                    small, medium, large, source.getWidth(), source.getHeight());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Thumbnail generation failed for image {}: {}", imageId, e.getMessage());
+            failed.increment();
+            productImageRepository.markFailed(imageId);
+        } finally {
+            blobStore.deleteStaged(stagedKey);
+        }
+    }
+
+    private String storeThumbnail(BufferedImage source, ThumbnailSize size) {
+        byte[] jpeg = ImageResizer.toJpeg(ImageResizer.fit(source, size.getMaxEdge()), jpegQuality);
+        return blobStore.put(jpeg, "jpg");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Presence registry for a single node: concurrent maps only, no JDBC. Room membership
+ * changes are atomic per room (ConcurrentHashMap.compute), so different rooms never contend.
+ */
+@Component
+@ConditionalOnProperty(name = "app.presence.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPresenceRegistry implements PresenceRegistry {
+
+    private static final class SessionState {
+        volatile Long userId;
+        volatile String username;
+        final Set<Long> rooms = ConcurrentHashMap.newKeySet();
+    }
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    // room id -> (session id -> user id); mutated only inside rooms.compute so a join
+    // can never land in a map that a concurrent disconnect is removing
+    private final Map<Long, Map<String, Long>> rooms = new ConcurrentHashMap<>();
+
+    @Override
+    public void connect(String sessionId, Long userId, String username) {
+        SessionState state = sessions.computeIfAbsent(sessionId, id -> new SessionState());
+        if (userId != null) {
+            bindUser(state, userId, username);
+        }
+    }
+
+    @Override
+    public boolean join(String sessionId, Long chatRoomId, Long userId, String username) {
+        SessionState state = sessions.computeIfAbsent(sessionId, id -> new SessionState());
+        bindUser(state, userId, username);
+        state.rooms.add(chatRoomId);
+
+        boolean[] newlyPresent = new boolean[1];
+        rooms.compute(chatRoomId, (id, members) -> {
+            Map<String, Long> current = members != null ? members : new ConcurrentHashMap<>();
+            newlyPresent[0] = !current.containsValue(userId);
+            current.put(sessionId, userId);
+            return current;
+        });
+        return newlyPresent[0];
+    }
+
+    @Override
+    public List<PresenceChange> disconnect(String sessionId) {
+        SessionState state = sessions.remove(sessionId);
+        if (state == null || state.userId == null) {
+            return List.of();
+        }
+        Long userId = state.userId;
+
+        List<PresenceChange> left = new ArrayList<>();
+        for (Long chatRoomId : state.rooms) {
+            rooms.computeIfPresent(chatRoomId, (id, members) -> {
+                members.remove(sessionId);
+                if (!members.containsValue(userId)) {
+                    left.add(new PresenceChange(chatRoomId, userId, state.username));
+                }
+                return members.isEmpty() ? null : members;
+            });
+        }
+        return left;
+    }
+
+    @Override
+    public Set<Long> getUsersInRoom(Long chatRoomId) {
+        Map<String, Long> members = rooms.get(chatRoomId);
+        return members == null ? Set.of() : Set.copyOf(members.values());
+    }
+
+    private void bindUser(SessionState state, Long userId, String username) {
+        state.userId = userId;
+        if (username != null) {
+            state.username = username;
+        }
+    }
+}
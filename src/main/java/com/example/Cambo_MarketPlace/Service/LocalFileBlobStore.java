@@ -0,0 +1,118 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Blobs as files under root/ab/cd/&lt;key&gt;, sharded by hash prefix so no directory
+ * grows too large. Writes go to a temp file and are renamed into place, so readers
+ * never see a partial blob and concurrent writers of the same content are harmless.
+ * Staged uploads go to root/staging under a random name, one file per upload.
+ */
+@Component
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "local", matchIfMissing = true)
+public class LocalFileBlobStore implements BlobStore {
+
+    private final Path root;
+    private final Path tmp;
+    private final Path staging;
+
+    public LocalFileBlobStore(@Value("${app.images.storage.root:./data/blobs}") String root) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        this.staging = this.root.resolve("staging");
+        Files.createDirectories(tmp);
+        Files.createDirectories(staging);
+    }
+
+    @Override
+    public String put(byte[] content, String extension) {
+        String key = sha256Hex(content) + "." + extension;
+        if (!BlobStore.isValidKey(key)) {
+            throw new IllegalArgumentException("Unsupported blob extension: " + extension);
+        }
+        Path target = resolve(key);
+        if (Files.exists(target)) {
+            return key;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(tmp, "blob-", ".part");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store blob " + key, e);
+        }
+        return key;
+    }
+
+    @Override
+    public Optional<Resource> get(String key) {
+        if (!BlobStore.isValidKey(key)) {
+            return Optional.empty();
+        }
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public String stage(byte[] content) {
+        String stagedKey = UUID.randomUUID().toString();
+        try {
+            Files.write(staging.resolve(stagedKey), content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not stage upload " + stagedKey, e);
+        }
+        return stagedKey;
+    }
+
+    @Override
+    public Optional<Resource> getStaged(String stagedKey) {
+        Path path = resolveStaged(stagedKey);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public void deleteStaged(String stagedKey) {
+        try {
+            Files.deleteIfExists(resolveStaged(stagedKey));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete staged upload " + stagedKey, e);
+        }
+    }
+
+    private Path resolveStaged(String stagedKey) {
+        // Only names produced by stage(), so a key can never escape the staging directory
+        return staging.resolve(UUID.fromString(stagedKey).toString());
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    static String sha256Hex(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.Cambo_MarketPlace.Models.Message;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hands out message ids from the same pooled sequence Hibernate uses, one
+ * nextval per block of {@link Message#ID_ALLOCATION_SIZE} ids, so a message can
+ * be broadcast with its final id before it is written.
+ */
+@Component
+public class MessageIdAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageIdAllocator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long next = 1;
+    private long hi = 0;
+
+    // EntityManagerFactory is injected so the sequence exists (ddl-auto) before it is aligned
+    public MessageIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Older databases assigned message ids with IDENTITY; move the sequence past
+     * them once so neither Hibernate nor this allocator can hand out a used id.
+     */
+    @PostConstruct
+    void alignSequence() {
+        try {
+            jdbcTemplate.queryForObject(
+                    "SELECT setval('" + Message.ID_SEQUENCE + "', GREATEST("
+                            + "(SELECT COALESCE(MAX(id), 0) FROM messages) + " + Message.ID_ALLOCATION_SIZE + ", "
+                            + "(SELECT last_value FROM " + Message.ID_SEQUENCE + ")))",
+                    Long.class);
+        } catch (Exception e) {
+            // Databases without setval (e.g. H2 in tests) start from a fresh sequence,
+            // which nextId() handles; only a pre-sequence PostgreSQL schema needs this
+            logger.warn("Could not align {} with existing message ids: {}", Message.ID_SEQUENCE, e.getMessage());
+        }
+    }
+
+    public synchronized long nextId() {
+        if (next > hi) {
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT nextval('" + Message.ID_SEQUENCE + "')", Long.class);
+            // Same block semantics as Hibernate's pooled optimizer: (value - size, value],
+            // clamped to ids >= 1 when the sequence is fresh (first nextval returns 1 and
+            // reserves only id 1, exactly as the pooled optimizer treats its initial value)
+            hi = value;
+            next = Math.max(1, value - Message.ID_ALLOCATION_SIZE + 1);
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.Cambo_MarketPlace.Models.Message;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind persistence for chat messages (app.chat.write-behind.enabled=true).
+ * Messages already carry their final id, are broadcast immediately and are
+ * written to the messages table in JDBC batches by a single flusher thread.
+ * The queue is bounded: when it is full the sender waits up to offer-timeout-ms
+ * and then writes its own message synchronously; if that write fails the error
+ * reaches the sender before anything is broadcast.
+ * Transient failures (database down, connection lost) keep the batch and retry it
+ * with exponential backoff, so an outage only delays writes. A row is dropped only
+ * when the database rejects it permanently (e.g. its chat room was deleted).
+ * On shutdown the queue is drained before the DataSource goes away.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.chat.write-behind", name = "enabled", havingValue = "true")
+public class MessageWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageWriteBehindService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (id, content, sender_id, chat_room_id, sent_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Message> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long retryMaxBackoffMs;
+    // Batch the flusher was holding when it was interrupted; written by shutdown()
+    private final List<Message> interrupted = new ArrayList<>();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public MessageWriteBehindService(JdbcTemplate jdbcTemplate,
+                                     @Value("${app.chat.write-behind.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${app.chat.write-behind.batch-size:200}") int batchSize,
+                                     @Value("${app.chat.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+                                     @Value("${app.chat.write-behind.offer-timeout-ms:100}") long offerTimeoutMs,
+                                     @Value("${app.chat.write-behind.retry-max-backoff-ms:5000}") long retryMaxBackoffMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.retryMaxBackoffMs = retryMaxBackoffMs;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "message-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queue a message (with id already assigned) for persistence
+     */
+    public void enqueue(Message message) {
+        try {
+            if (running && queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Backpressure: queue full (or shutting down), persist on the caller's thread
+        writeBatch(List.of(message));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void flushLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Message first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                // Interrupted by shutdown(); it writes this batch and the remaining queue
+                synchronized (interrupted) {
+                    interrupted.addAll(batch);
+                }
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Keeps retrying transient failures; returns once every row is written or permanently rejected
+    private void writeWithRetry(List<Message> batch) throws InterruptedException {
+        long backoffMs = Math.min(100, retryMaxBackoffMs);
+        while (true) {
+            try {
+                writeBatch(batch);
+                return;
+            } catch (DataAccessException e) {
+                logger.warn("Writing {} messages failed, retrying in {} ms ({} queued): {}",
+                        batch.size(), backoffMs, queue.size(), e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, retryMaxBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * Insert the batch. Rows the database rejects for good are logged and skipped;
+     * any other failure is thrown with the unwritten rows left to the caller.
+     */
+    private void writeBatch(List<Message> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+                ps.setLong(1, message.getId());
+                ps.setString(2, message.getContent());
+                ps.setLong(3, message.getSender().getId());
+                ps.setLong(4, message.getChatRoom().getId());
+                ps.setTimestamp(5, Timestamp.valueOf(message.getSentAt()));
+            });
+        } catch (DuplicateKeyException e) {
+            if (batch.size() == 1) {
+                // Written by an earlier attempt whose outcome was lost
+                return;
+            }
+            writeOneByOne(batch);
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                Message message = batch.get(0);
+                logger.error("Dropping message {} for chat room {}, rejected by the database: {}",
+                        message.getId(), message.getChatRoom().getId(), e.getMessage());
+                return;
+            }
+            // Isolate the bad row(s) so one rejected message doesn't lose the whole batch
+            logger.warn("Batch insert of {} messages was rejected, retrying one by one: {}", batch.size(), e.getMessage());
+            writeOneByOne(batch);
+        }
+    }
+
+    private void writeOneByOne(List<Message> batch) {
+        for (Message message : batch) {
+            writeBatch(List.of(message));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+            flusher.join();
+        }
+        // Anything the flusher didn't get to is written here, before the DataSource closes
+        List<Message> remaining;
+        synchronized (interrupted) {
+            remaining = new ArrayList<>(interrupted);
+        }
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            List<Message> batch = remaining.subList(from, Math.min(from + batchSize, remaining.size()));
+            try {
+                writeBatch(batch);
+            } catch (DataAccessException e) {
+                // Last chance: the process is exiting, so report exactly what was not stored
+                logger.error("Could not persist messages {} on shutdown: {}",
+                        batch.stream().map(Message::getId).toList(), e.getMessage());
+            }
+        }
+        logger.info("Message write-behind queue drained");
+    }
+}
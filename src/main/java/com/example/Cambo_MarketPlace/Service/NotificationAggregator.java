@@ -0,0 +1,121 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.Cambo_MarketPlace.DTO.ChatMessageDTO;
+import com.example.Cambo_MarketPlace.DTO.NotificationSummaryDTO;
+import com.example.Cambo_MarketPlace.DTO.NotificationSummaryDTO.RoomUpdate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Coalesces per-user notifications. Messages for a recipient are merged per room
+ * for up to window-ms, then sent as one NOTIFICATIONS frame, so a seller with many
+ * active conversations gets a frame per window instead of one per message.
+ * window-ms=0 sends every notification immediately (same frame shape).
+ * Badges are read from ReadStateService when the window is sent, so a read receipt
+ * that arrived during the window is not undone by the count captured earlier.
+ */
+@Service
+public class NotificationAggregator {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ReadStateService readStateService;
+    private final long windowMs;
+    private final Counter eventsCounter;
+    private final Counter framesCounter;
+
+    // recipient id -> (room id -> pending update); only mutated inside compute()
+    private final Map<Long, Map<Long, RoomUpdate>> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    public NotificationAggregator(SimpMessagingTemplate messagingTemplate,
+                                  ReadStateService readStateService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.chat.notifications.window-ms:250}") long windowMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.readStateService = readStateService;
+        this.windowMs = windowMs;
+        this.eventsCounter = Counter.builder("chat.notifications.events")
+                .description("Message notifications produced")
+                .register(meterRegistry);
+        this.framesCounter = Counter.builder("chat.notifications.frames")
+                .description("Notification frames sent after coalescing")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (windowMs <= 0) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a notification of message for recipientId, whose badge for the room is now unreadCount
+     */
+    public void add(Long recipientId, ChatMessageDTO message, long unreadCount) {
+        eventsCounter.increment();
+        RoomUpdate update = RoomUpdate.of(message, unreadCount);
+        if (windowMs <= 0) {
+            send(recipientId, Map.of(message.getChatRoomId(), update));
+            return;
+        }
+        pending.compute(recipientId, (id, rooms) -> {
+            Map<Long, RoomUpdate> merged = rooms != null ? rooms : new LinkedHashMap<>();
+            merged.merge(message.getChatRoomId(), update, RoomUpdate::merge);
+            return merged;
+        });
+    }
+
+    void flush() {
+        for (Long recipientId : pending.keySet()) {
+            // Removed atomically: later adds start a fresh map for the next window
+            Map<Long, RoomUpdate> rooms = pending.remove(recipientId);
+            if (rooms != null) {
+                rooms.replaceAll((roomId, update) -> withCurrentUnread(recipientId, update));
+                send(recipientId, rooms);
+            }
+        }
+    }
+
+    // The counter is the live badge; the queued count may predate a read receipt
+    private RoomUpdate withCurrentUnread(Long recipientId, RoomUpdate update) {
+        Long unread = readStateService.getCachedUnread(update.chatRoomId(), recipientId);
+        return unread != null ? update.withUnreadCount(unread) : update;
+    }
+
+    private void send(Long recipientId, Map<Long, RoomUpdate> rooms) {
+        framesCounter.increment();
+        messagingTemplate.convertAndSend("/topic/user/" + recipientId + "/notifications",
+                new NotificationSummaryDTO(new ArrayList<>(rooms.values())));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flush();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Who is connected and which chat rooms they have open, tracked per STOMP session
+ * so a user with several tabs/devices only leaves a room when the last one closes.
+ * The default implementation is in-memory (single node); a shared store for
+ * multi-node deployments can be plugged in with app.presence.backend.
+ */
+public interface PresenceRegistry {
+
+    /** A user who is no longer present in a room */
+    record PresenceChange(Long chatRoomId, Long userId, String username) {
+    }
+
+    /**
+     * Register a new session; userId/username may be null until the session joins a room
+     */
+    void connect(String sessionId, Long userId, String username);
+
+    /**
+     * Session joined a room as userId; true if the user was not already present there
+     */
+    boolean join(String sessionId, Long chatRoomId, Long userId, String username);
+
+    /**
+     * Session closed; returns the rooms its user is no longer present in on any session
+     */
+    List<PresenceChange> disconnect(String sessionId);
+
+    Set<Long> getUsersInRoom(Long chatRoomId);
+}
@@ -0,0 +1,33 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import org.springframework.stereotype.Component;
+
+import com.example.Cambo_MarketPlace.Models.Product;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener on Product: any insert, update (including status changes) or
+ * delete going through Hibernate evicts that product's cached detail response.
+ * Instantiated by Spring through Hibernate's bean container.
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    private final ProductDetailCache productDetailCache;
+
+    public ProductCacheInvalidator(ProductDetailCache productDetailCache) {
+        this.productDetailCache = productDetailCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Product product) {
+        if (product.getId() != null) {
+            productDetailCache.evict(product.getId());
+        }
+    }
+}
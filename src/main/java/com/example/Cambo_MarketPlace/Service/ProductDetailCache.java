@@ -0,0 +1,85 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import com.example.Cambo_MarketPlace.DTO.ProductDetailDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Product detail responses, already serialized, keyed by product id.
+ * A hit skips both PostgreSQL and Jackson; the ETag lets clients revalidate with a 304.
+ * Entries are evicted when the product is written (ProductCacheInvalidator) or its
+ * seller changes; the TTL only bounds staleness from writes made outside the application.
+ */
+@Component
+public class ProductDetailCache {
+
+    public record Entry(byte[] json, String etag, Long sellerId) {
+    }
+
+    private final Cache<Long, Entry> cache;
+    private final JsonMapper jsonMapper;
+
+    public ProductDetailCache(JsonMapper jsonMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.products.detail-cache.max-size:10000}") long maxSize,
+                              @Value("${app.products.detail-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.jsonMapper = jsonMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.detail");
+    }
+
+    /**
+     * Cached entry for the product, loading and serializing it on a miss; null if not found.
+     * Concurrent misses for the same id load once, and an eviction racing a load wins.
+     */
+    public Entry get(Long productId, Supplier<ProductDetailDTO> loader) {
+        return cache.get(productId, id -> {
+            ProductDetailDTO product = loader.get();
+            return product != null ? serialize(product) : null;
+        });
+    }
+
+    /**
+     * Evict now and again once the surrounding transaction commits, so a reader that
+     * loads the old row between flush and commit cannot leave it cached
+     */
+    public void evict(Long productId) {
+        cache.invalidate(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(productId);
+                }
+            });
+        }
+    }
+
+    // Product JSON embeds the seller, so a user update invalidates their listings
+    public void evictSeller(Long sellerId) {
+        cache.asMap().values().removeIf(entry -> sellerId.equals(entry.sellerId()));
+    }
+
+    private Entry serialize(ProductDetailDTO product) {
+        byte[] json = jsonMapper.writeValueAsBytes(product);
+        String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        return new Entry(json, etag, product.seller() != null ? product.seller().id() : null);
+    }
+}
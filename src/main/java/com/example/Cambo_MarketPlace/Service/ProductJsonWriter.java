@@ -0,0 +1,142 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.example.Cambo_MarketPlace.DTO.CursorPageDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductExportDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Writes catalog pages token by token straight to the response stream, with
+ * property names encoded once up front. Produces the same JSON as letting Jackson
+ * serialize CursorPageDTO&lt;ProductSummaryDTO&gt;, without per-call introspection.
+ */
+@Component
+public class ProductJsonWriter {
+
+    private static final SerializableString ITEMS = new SerializedString("items");
+    private static final SerializableString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializableString HAS_MORE = new SerializedString("hasMore");
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString SELLER = new SerializedString("seller");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString PRIMARY_IMAGE = new SerializedString("primaryImage");
+    private static final SerializableString URL = new SerializedString("url");
+    private static final SerializableString THUMBNAIL_URL = new SerializedString("thumbnailUrl");
+
+    // Export rows per explicit flush, matching the cursor's fetch size
+    static final int EXPORT_FLUSH_ROWS = 1000;
+
+    private final JsonMapper jsonMapper;
+    // Without FLUSH_AFTER_WRITE_VALUE, which would flush the response (one HTTP chunk) per row
+    private final ObjectWriter exportWriter;
+
+    public ProductJsonWriter(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.exportWriter = jsonMapper.writerFor(ProductExportDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void writeCatalogPage(CursorPageDTO<ProductSummaryDTO> page, OutputStream out) {
+        try (JsonGenerator gen = jsonMapper.createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeName(ITEMS);
+            gen.writeStartArray();
+            for (ProductSummaryDTO item : page.getItems()) {
+                writeSummary(gen, item);
+            }
+            gen.writeEndArray();
+            gen.writeName(NEXT_CURSOR);
+            writeString(gen, page.getNextCursor());
+            gen.writeName(HAS_MORE);
+            gen.writeBoolean(page.isHasMore());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes one JSON object per line (NDJSON) as rows come off the cursor; only the
+     * generator's buffer is held in memory, whatever the row count. Output is flushed
+     * every EXPORT_FLUSH_ROWS rows so clients see progress without a flush per row.
+     */
+    public long writeExport(Stream<ProductExportDTO> rows, OutputStream out) {
+        long count = 0;
+        try (JsonGenerator gen = jsonMapper.createGenerator(out)) {
+            for (ProductExportDTO row : (Iterable<ProductExportDTO>) rows::iterator) {
+                exportWriter.writeValue(gen, row);
+                gen.writeRaw('\n');
+                if (++count % EXPORT_FLUSH_ROWS == 0) {
+                    gen.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    public void writeSummary(JsonGenerator gen, ProductSummaryDTO item) {
+        gen.writeStartObject();
+        gen.writeName(ID);
+        gen.writeNumber(item.id());
+        gen.writeName(TITLE);
+        writeString(gen, item.title());
+        gen.writeName(PRICE);
+        if (item.price() != null) {
+            gen.writeNumber(item.price());
+        } else {
+            gen.writeNull();
+        }
+        gen.writeName(STATUS);
+        writeString(gen, item.status());
+        gen.writeName(CREATED_AT);
+        writeString(gen, item.createdAt() != null
+                ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(item.createdAt()) : null);
+        gen.writeName(SELLER);
+        if (item.seller() != null) {
+            gen.writeStartObject();
+            gen.writeName(ID);
+            gen.writeNumber(item.seller().id());
+            gen.writeName(USERNAME);
+            writeString(gen, item.seller().username());
+            gen.writeEndObject();
+        } else {
+            gen.writeNull();
+        }
+        gen.writeName(PRIMARY_IMAGE);
+        if (item.primaryImage() != null) {
+            gen.writeStartObject();
+            gen.writeName(ID);
+            gen.writeNumber(item.primaryImage().id());
+            gen.writeName(URL);
+            writeString(gen, item.primaryImage().url());
+            gen.writeName(THUMBNAIL_URL);
+            writeString(gen, item.primaryImage().thumbnailUrl());
+            gen.writeEndObject();
+        } else {
+            gen.writeNull();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, String value) {
+        if (value != null) {
+            gen.writeString(value);
+        } else {
+            gen.writeNull();
+        }
+    }
+}
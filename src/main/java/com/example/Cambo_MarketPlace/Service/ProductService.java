@@ -0,0 +1,148 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.Cambo_MarketPlace.DTO.CursorPageDTO;
+import com.example.Cambo_MarketPlace.DTO.KeysetCursor;
+import com.example.Cambo_MarketPlace.DTO.ProductExportDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductImageDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductSearchHit;
+import com.example.Cambo_MarketPlace.DTO.ProductSearchResultDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO;
+import com.example.Cambo_MarketPlace.Repository.ProductFilter;
+import com.example.Cambo_MarketPlace.Repository.ProductImageRepository;
+import com.example.Cambo_MarketPlace.Repository.ProductRepository;
+
+@Service
+public class ProductService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Ranked results can't be keyset-paginated, so cap how deep OFFSET may go
+    public static final int MAX_SEARCH_OFFSET = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ProductDetailCache productDetailCache;
+    private final ProductJsonWriter productJsonWriter;
+
+    public ProductService(ProductRepository productRepository, ProductImageRepository productImageRepository,
+                          ProductDetailCache productDetailCache, ProductJsonWriter productJsonWriter) {
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.productDetailCache = productDetailCache;
+        this.productJsonWriter = productJsonWriter;
+    }
+
+    /**
+     * Get one page of the catalog, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductSummaryDTO> getCatalogPage(ProductFilter filter, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = clampPageSize(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<ProductSummaryDTO> rows = productRepository.findCatalogPage(filter, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummaryDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductSummaryDTO last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.createdAt(), last.id()).encode();
+        }
+
+        Map<Long, ProductSummaryDTO.PrimaryImage> images = findPrimaryImages(
+                items.stream().map(ProductSummaryDTO::id).toList());
+        List<ProductSummaryDTO> withImages = items.stream()
+                .map(item -> item.withPrimaryImage(images.get(item.id())))
+                .toList();
+        return new CursorPageDTO<>(withImages, nextCursor, hasMore);
+    }
+
+    /**
+     * Get a product's serialized detail response and ETag, from the cache when possible
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductDetailCache.Entry> getProductDetail(Long id) {
+        return Optional.ofNullable(productDetailCache.get(id, () -> productRepository.findDetail(id).orElse(null)));
+    }
+
+    /**
+     * Stream the catalog as NDJSON, optionally only products updated at or after the given time.
+     * The transaction keeps the server-side cursor open while rows are written.
+     */
+    @Transactional(readOnly = true)
+    public long exportCatalog(LocalDateTime updatedSince, OutputStream out) {
+        try (Stream<ProductExportDTO> rows = updatedSince != null
+                ? productRepository.streamForExportUpdatedSince(updatedSince)
+                : productRepository.streamForExport()) {
+            return productJsonWriter.writeExport(rows, out);
+        }
+    }
+
+    /**
+     * Full-text search over title and description, best match first
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> search(String query, String status, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        int pageSize = clampPageSize(size);
+        int pageNumber = Math.max(page, 0);
+        // Long math: a huge page number must not overflow int and wrap past the limit
+        long offset = (long) pageNumber * pageSize;
+        if (offset > MAX_SEARCH_OFFSET) {
+            throw new IllegalArgumentException("Page is too deep, please refine the search");
+        }
+
+        List<ProductSearchHit> rows = productRepository.search(query.trim(), status, pageSize + 1, (int) offset);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSearchHit> hits = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<Long, ProductSummaryDTO.PrimaryImage> images = findPrimaryImages(
+                hits.stream().map(ProductSearchHit::getId).toList());
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", hits.stream()
+                .map(hit -> new ProductSearchResultDTO(hit, images.get(hit.getId())))
+                .toList());
+        response.put("page", pageNumber);
+        response.put("size", pageSize);
+        response.put("hasMore", hasMore);
+        return response;
+    }
+
+    /**
+     * Primary image of each product, in one IN (...) query however large the page
+     */
+    private Map<Long, ProductSummaryDTO.PrimaryImage> findPrimaryImages(Collection<Long> productIds) {
+        Map<Long, ProductSummaryDTO.PrimaryImage> images = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return images;
+        }
+        for (ProductImageRepository.PrimaryImageRow row : productImageRepository.findPrimaryImages(productIds)) {
+            images.putIfAbsent(row.getProductId(), new ProductSummaryDTO.PrimaryImage(row.getId(),
+                    ProductImageDTO.url(row.getOriginalKey()), ProductImageDTO.url(row.getSmallKey())));
+        }
+        return images;
+    }
+
+    static int clampPageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
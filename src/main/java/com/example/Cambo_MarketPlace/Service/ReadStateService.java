@@ -0,0 +1,188 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.Cambo_MarketPlace.DTO.ChatRoomMembership;
+import com.example.Cambo_MarketPlace.Repository.ChatRoomRepository;
+import com.example.Cambo_MarketPlace.Repository.MessageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-participant unread counters and read markers, kept in memory.
+ * A counter is loaded with one COUNT the first time it is needed and is then
+ * incremented on each new message and reset by read receipts, so badges never
+ * require reading message history. Read markers are written to chat_rooms in
+ * the background every flush-interval-ms (and on shutdown), only ever moving forward.
+ * Messages are ordered by (sentAt, id), the same order as the history: ids are
+ * allocated in per-node blocks, so across nodes a lower id may be sent later.
+ */
+@Service
+public class ReadStateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadStateService.class);
+
+    private record Key(Long chatRoomId, Long userId) {
+    }
+
+    // A message's place in the room's (sentAt, id) order
+    private record Position(LocalDateTime sentAt, long messageId) implements Comparable<Position> {
+        // Bounds for "no marker" and "no upper limit", inside every database's timestamp range
+        static final Position START = new Position(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+        static final Position END = new Position(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+        @Override
+        public int compareTo(Position other) {
+            int bySentAt = sentAt.compareTo(other.sentAt);
+            return bySentAt != 0 ? bySentAt : Long.compare(messageId, other.messageId);
+        }
+
+        static Position later(Position a, Position b) {
+            return a.compareTo(b) >= 0 ? a : b;
+        }
+    }
+
+    private record Marker(boolean buyer, Position position) {
+    }
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final MessageRepository messageRepository;
+    private final long flushIntervalMs;
+
+    private final Cache<Key, AtomicLong> unreadCounts;
+    // Latest message seen per room, so "read up to the latest" needs no query
+    private final Cache<Long, AtomicReference<Position>> latestMessages;
+    // Read markers not yet written to chat_rooms
+    private final Map<Key, Marker> pendingMarkers = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    public ReadStateService(ChatRoomRepository chatRoomRepository,
+                            MessageRepository messageRepository,
+                            @Value("${app.chat.read-state.max-entries:200000}") long maxEntries,
+                            @Value("${app.chat.cache.ttl-minutes:30}") long ttlMinutes,
+                            @Value("${app.chat.read-state.flush-interval-ms:2000}") long flushIntervalMs) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.messageRepository = messageRepository;
+        this.flushIntervalMs = flushIntervalMs;
+        this.unreadCounts = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.latestMessages = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-marker-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record a new message and return the recipient's updated unread count for the room
+     */
+    public long onMessage(ChatRoomMembership room, Long senderId, Long messageId, LocalDateTime sentAt) {
+        Position position = new Position(sentAt, messageId);
+        latestMessages.get(room.chatRoomId(), id -> new AtomicReference<>(position))
+                .accumulateAndGet(position, Position::later);
+
+        Long recipientId = room.otherParticipant(senderId);
+        // On a miss, count what came before this message, then add this one
+        AtomicLong count = unreadCounts.get(new Key(room.chatRoomId(), recipientId),
+                key -> new AtomicLong(countUnread(key, position)));
+        return count.incrementAndGet();
+    }
+
+    /**
+     * Move userId's read marker forward to the given message and return what is still unread
+     */
+    public long markRead(ChatRoomMembership room, Long userId, Long lastReadMessageId, LocalDateTime lastReadSentAt) {
+        Key key = new Key(room.chatRoomId(), userId);
+        Position read = new Position(lastReadSentAt, lastReadMessageId);
+        Marker marker = new Marker(room.buyerId().equals(userId), read);
+        pendingMarkers.merge(key, marker, (a, b) -> a.position().compareTo(b.position()) >= 0 ? a : b);
+
+        AtomicReference<Position> latest = latestMessages.getIfPresent(room.chatRoomId());
+        long unread = latest != null && read.compareTo(latest.get()) >= 0
+                ? 0
+                : countUnread(key, Position.END);
+        // Reset the counter in place: onMessage may hold the same AtomicLong, and
+        // replacing it would drop an increment made on the old instance
+        unreadCounts.asMap().compute(key, (k, count) -> {
+            if (count == null) {
+                return new AtomicLong(unread);
+            }
+            count.set(unread);
+            return count;
+        });
+        return unread;
+    }
+
+    /**
+     * Cached unread count, or null if this counter is not in memory
+     */
+    public Long getCachedUnread(Long chatRoomId, Long userId) {
+        AtomicLong count = unreadCounts.getIfPresent(new Key(chatRoomId, userId));
+        return count != null ? count.get() : null;
+    }
+
+    // Messages from the other participant after the reader's marker (pending or stored) and before `before`.
+    // With write-behind enabled, messages still queued for insert are not in the table yet, so a
+    // counter loaded during that lag (flush-interval-ms, longer while the database is down) is
+    // low by those messages until the reader's next receipt recounts it.
+    private long countUnread(Key key, Position before) {
+        Marker pending = pendingMarkers.get(key);
+        Position after = pending != null ? pending.position() : Position.START;
+        return messageRepository.countUnread(key.chatRoomId(), key.userId(),
+                after.sentAt(), after.messageId(), before.sentAt(), before.messageId());
+    }
+
+    void flush() {
+        for (Map.Entry<Key, Marker> entry : pendingMarkers.entrySet()) {
+            Key key = entry.getKey();
+            Marker marker = entry.getValue();
+            try {
+                Position position = marker.position();
+                if (marker.buyer()) {
+                    chatRoomRepository.advanceBuyerLastRead(key.chatRoomId(), position.sentAt(), position.messageId());
+                } else {
+                    chatRoomRepository.advanceSellerLastRead(key.chatRoomId(), position.sentAt(), position.messageId());
+                }
+                // Keep it if a newer receipt arrived while writing
+                pendingMarkers.remove(key, marker);
+            } catch (Exception e) {
+                logger.warn("Could not store read marker for room {}: {}", key.chatRoomId(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+}
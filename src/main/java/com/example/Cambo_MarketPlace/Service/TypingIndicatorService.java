@@ -0,0 +1,101 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.Cambo_MarketPlace.DTO.TypingStateDTO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Typing indicators, kept entirely in memory.
+ * Keystroke events only update a per-room map; every coalesce-ms, rooms whose set of
+ * typing users changed get a single TYPING frame listing who is typing. Repeated
+ * "typing" events from someone already typing just extend their timeout, so chatty
+ * clients are throttled for free. A user who stops sending events drops out after timeout-ms.
+ */
+@Service
+public class TypingIndicatorService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long coalesceMs;
+    private final long timeoutMs;
+
+    // room id -> (user id -> typing expires at, epoch ms)
+    private final Map<Long, Map<Long, Long>> typing = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyRooms = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService flusher;
+
+    public TypingIndicatorService(SimpMessagingTemplate messagingTemplate,
+                                  @Value("${app.presence.typing.coalesce-ms:300}") long coalesceMs,
+                                  @Value("${app.presence.typing.timeout-ms:5000}") long timeoutMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.coalesceMs = coalesceMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "typing-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, coalesceMs, coalesceMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void update(Long chatRoomId, Long userId, boolean isTyping) {
+        if (isTyping) {
+            long expiresAt = System.currentTimeMillis() + timeoutMs;
+            // Inside compute so flush() can't drop the room map between lookup and put
+            typing.compute(chatRoomId, (id, users) -> {
+                Map<Long, Long> room = users != null ? users : new ConcurrentHashMap<>();
+                if (room.put(userId, expiresAt) == null) {
+                    dirtyRooms.add(chatRoomId);
+                }
+                return room;
+            });
+        } else {
+            stop(chatRoomId, userId);
+        }
+    }
+
+    public void stop(Long chatRoomId, Long userId) {
+        Map<Long, Long> users = typing.get(chatRoomId);
+        if (users != null && users.remove(userId) != null) {
+            dirtyRooms.add(chatRoomId);
+        }
+    }
+
+    void flush() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Map<Long, Long>> room : typing.entrySet()) {
+            if (room.getValue().values().removeIf(expiresAt -> expiresAt <= now)) {
+                dirtyRooms.add(room.getKey());
+            }
+        }
+        for (Long chatRoomId : dirtyRooms) {
+            dirtyRooms.remove(chatRoomId);
+            Map<Long, Long> users = typing.computeIfPresent(chatRoomId, (id, m) -> m.isEmpty() ? null : m);
+            List<Long> userIds = users == null ? List.of() : List.copyOf(users.keySet());
+            messagingTemplate.convertAndSend("/topic/chatroom/" + chatRoomId,
+                    new TypingStateDTO(chatRoomId, userIds));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+    }
+}
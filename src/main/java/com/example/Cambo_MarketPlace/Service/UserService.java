@@ -1,7 +1,9 @@
 package com.example.Cambo_MarketPlace.Service;
 
 import com.example.Cambo_MarketPlace.Models.User;
+import com.example.Cambo_MarketPlace.Repository.RefreshTokenRepository;
 import com.example.Cambo_MarketPlace.Repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -14,20 +16,25 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ChatMembershipCache chatMembershipCache;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ProductDetailCache productDetailCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       ChatMembershipCache chatMembershipCache,
+                       RefreshTokenRepository refreshTokenRepository,
+                       ProductDetailCache productDetailCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.chatMembershipCache = chatMembershipCache;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.productDetailCache = productDetailCache;
     }
 
     // CREATE
     public User createUser(User user) {
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new RuntimeException("Email already exists");
-        }
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new RuntimeException("Username already exists");
-        }
+        // Checked before hashing so duplicates never cost a BCrypt round
+        rejectTaken(user.getUsername(), user.getEmail());
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setCreatedAt(LocalDateTime.now());
@@ -36,7 +43,13 @@ public class UserService {
             user.setRole("USER");
         }
 
-        return userRepository.save(user);
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent signup won the race; the unique constraints are the real guard
+            rejectTaken(user.getUsername(), user.getEmail());
+            throw e;
+        }
     }
 
     // READ ALL
@@ -54,18 +67,37 @@ public class UserService {
         return userRepository.findById(id).map(user -> {
             if (updatedUser.getUsername() != null) user.setUsername(updatedUser.getUsername());
             if (updatedUser.getEmail() != null) user.setEmail(updatedUser.getEmail());
-            if (updatedUser.getPassword() != null)
+            if (updatedUser.getPassword() != null) {
                 user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
+                // A password change ends every other session once its access token expires
+                refreshTokenRepository.deleteByUserId(id);
+            }
             if (updatedUser.getRole() != null) user.setRole(updatedUser.getRole());
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            chatMembershipCache.evictUser(id);
+            productDetailCache.evictSeller(id);
+            return saved;
         }).orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
+    private void rejectTaken(String username, String email) {
+        List<String> taken = userRepository.findTakenFields(username, email);
+        if (taken.contains("username")) {
+            throw new DuplicateUserException("Username already exists");
+        }
+        if (taken.contains("email")) {
+            throw new DuplicateUserException("Email already exists");
+        }
+    }
+
     // DELETE
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new RuntimeException("User not found with id: " + id);
         }
+        refreshTokenRepository.deleteByUserId(id);
         userRepository.deleteById(id);
+        chatMembershipCache.evictUser(id);
+        productDetailCache.evictSeller(id);
     }
 }
@@ -0,0 +1,91 @@
+package com.example.Cambo_MarketPlace.Security;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.Cambo_MarketPlace.Models.User;
+import com.example.Cambo_MarketPlace.Repository.RefreshTokenRepository;
+import com.example.Cambo_MarketPlace.Repository.UserRepository;
+
+/**
+ * Refresh is called once the access token has expired, so a stale bearer token sent
+ * along with it must not get the request rejected before the controller runs.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authrefresh;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.jwt.keys=" + AuthRefreshTest.KEYS,
+        "app.images.storage.root=target/test-blobs"
+})
+@AutoConfigureMockMvc
+class AuthRefreshTest {
+
+    static final String KEYS = "test:cmVmcmVzaC10ZXN0LXNpZ25pbmcta2V5LTAxMjM0NTY3ODk=";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void seed() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User buyer = new User();
+        buyer.setUsername("buyer");
+        buyer.setEmail("buyer@example.com");
+        buyer.setPassword("not-a-hash");
+        buyer.setRole("USER");
+        user = userRepository.save(buyer);
+    }
+
+    @Test
+    void refreshSucceedsWithExpiredAccessToken() throws Exception {
+        String refreshToken = refreshTokenService.issue(user);
+        // Same signing key as the application, negative TTL: already expired when issued
+        String expired = new JwtUtil(KEYS, "test", -1, 10).generateToken(user.getEmail(), user.getRole());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .header("Authorization", "Bearer " + expired)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+    }
+
+    @Test
+    void expiredAccessTokenIsStillRejectedElsewhere() throws Exception {
+        String expired = new JwtUtil(KEYS, "test", -1, 10).generateToken(user.getEmail(), user.getRole());
+
+        mockMvc.perform(post("/api/chatrooms/create-or-get")
+                        .header("Authorization", "Bearer " + expired)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnauthorized());
+    }
+}
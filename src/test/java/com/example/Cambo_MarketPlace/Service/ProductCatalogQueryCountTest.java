@@ -0,0 +1,143 @@
+package com.example.Cambo_MarketPlace.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.Cambo_MarketPlace.DTO.CursorPageDTO;
+import com.example.Cambo_MarketPlace.DTO.ProductSummaryDTO;
+import com.example.Cambo_MarketPlace.Models.Product;
+import com.example.Cambo_MarketPlace.Models.ProductImage;
+import com.example.Cambo_MarketPlace.Models.User;
+import com.example.Cambo_MarketPlace.Repository.ProductImageRepository;
+import com.example.Cambo_MarketPlace.Repository.ProductRepository;
+import com.example.Cambo_MarketPlace.Repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Catalog pages must cost a fixed number of SQL statements (the page query plus one
+ * batch query for primary images) no matter how many products the page holds.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogquerycount;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "app.images.storage.root=target/test-blobs"
+})
+class ProductCatalogQueryCountTest {
+
+    private static final int PRODUCTS = 30;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // product id -> expected thumbnail URL (null = no image)
+    private final Map<Long, String> expectedThumbnails = new HashMap<>();
+
+    @BeforeEach
+    void seed() {
+        productImageRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User seller = new User();
+        seller.setUsername("seller");
+        seller.setEmail("seller@example.com");
+        seller.setPassword("not-a-hash");
+        seller.setRole("SELLER");
+        seller = userRepository.save(seller);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setTitle("Product " + i);
+            product.setPrice(10.0 + i);
+            product.setStatus("AVAILABLE");
+            product.setCreatedAt(now.minusMinutes(i));
+            product.setSeller(seller);
+            product = productRepository.save(product);
+
+            // Every third product has no images; the rest have a primary and a second image
+            if (i % 3 == 0) {
+                expectedThumbnails.put(product.getId(), null);
+                continue;
+            }
+            String smallKey = String.format("%064x.jpg", i);
+            productImageRepository.save(image(product, 0, String.format("%064x.jpg", 1000 + i), smallKey));
+            productImageRepository.save(image(product, 1, String.format("%064x.jpg", 2000 + i),
+                    String.format("%064x.jpg", 3000 + i)));
+            expectedThumbnails.put(product.getId(), "/api/images/" + smallKey);
+        }
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        long smallPage = statementsFor(5);
+        long largePage = statementsFor(25);
+
+        assertThat(smallPage).isEqualTo(2);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void itemsCarryTheirPrimaryImage() {
+        CursorPageDTO<ProductSummaryDTO> page = productService.getCatalogPage(null, null, PRODUCTS);
+
+        assertThat(page.getItems()).hasSize(PRODUCTS);
+        for (ProductSummaryDTO item : page.getItems()) {
+            String expected = expectedThumbnails.get(item.id());
+            if (expected == null) {
+                assertThat(item.primaryImage()).isNull();
+            } else {
+                assertThat(item.primaryImage()).isNotNull();
+                assertThat(item.primaryImage().thumbnailUrl()).isEqualTo(expected);
+            }
+        }
+    }
+
+    private long statementsFor(int pageSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CursorPageDTO<ProductSummaryDTO> page = productService.getCatalogPage(null, null, pageSize);
+        assertThat(page.getItems()).hasSize(pageSize);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static ProductImage image(Product product, int position, String originalKey, String smallKey) {
+        ProductImage image = new ProductImage();
+        image.setProduct(product);
+        image.setPosition(position);
+        image.setOriginalKey(originalKey);
+        image.setSmallKey(smallKey);
+        image.setImageUrl("/api/images/" + originalKey);
+        image.setStatus(ImageService.READY);
+        return image;
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.Cambo_MarketPlace.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import com.example.Cambo_MarketPlace.Models.Product;
+import com.example.Cambo_MarketPlace.Models.User;
+import com.example.Cambo_MarketPlace.Repository.ProductRepository;
+import com.example.Cambo_MarketPlace.Repository.UserRepository;
+
+/**
+ * End-to-end load test: simulated buyer/seller pairs log in, browse the catalog,
+ * open a chat room and exchange STOMP messages against a real server on an
+ * in-memory H2 database (PostgreSQL mode).
+ *
+ * Run with: ./mvnw -Pload-test test -Dloadtest.pairs=1000 -Dloadtest.messages=20
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        // Every pair logs in at once; the test measures queued logins instead of shedding them
+        "app.auth.hashing.queue-capacity=100000",
+        "app.auth.hashing.timeout-ms=300000"
+})
+class ChatLoadTest {
+
+    private static final int PAIRS = Integer.getInteger("loadtest.pairs", 500);
+    private static final int MESSAGES_PER_PAIR = Integer.getInteger("loadtest.messages", 20);
+    private static final long THINK_TIME_MS = Long.getLong("loadtest.think-ms", 20);
+    private static final long DELIVERY_TIMEOUT_SECONDS = Long.getLong("loadtest.timeout-seconds", 60);
+    private static final String PASSWORD = "load-test-password";
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern CHAT_ROOM_ID = Pattern.compile("\"chatRoomId\"\\s*:\\s*(\\d+)");
+    private static final Pattern LAG_STAMP = Pattern.compile("\"content\"\\s*:\\s*\"lt:(\\d+)\"");
+    private static final Pattern READ_RECEIPT = Pattern.compile("\"lastReadMessageId\"");
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final Latencies login = new Latencies("login");
+    private final Latencies catalog = new Latencies("catalog");
+    private final Latencies createOrGet = new Latencies("create-or-get");
+    private final Latencies deliveryLag = new Latencies("delivery-lag");
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger delivered = new AtomicInteger();
+
+    private HttpClient http;
+    private WebSocketStompClient stompClient;
+
+    @Test
+    void chatUnderLoad() throws Exception {
+        List<Pair> pairs = seed();
+        http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+
+        long start = System.nanoTime();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Pair pair : pairs) {
+                users.submit(() -> runPair(pair));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        int expected = PAIRS * MESSAGES_PER_PAIR;
+        int requests = login.count() + catalog.count() + createOrGet.count();
+        System.out.printf("%n=== Chat load test: %d pairs x %d messages in %.1f s ===%n",
+                PAIRS, MESSAGES_PER_PAIR, elapsedSeconds);
+        System.out.printf("REST throughput:      %.0f req/s%n", requests / elapsedSeconds);
+        System.out.printf("Message throughput:   %.0f msg/s (%d/%d delivered, %d errors)%n",
+                delivered.get() / elapsedSeconds, delivered.get(), expected, errors.get());
+        for (Latencies latencies : List.of(login, catalog, createOrGet, deliveryLag)) {
+            System.out.println(latencies.summary());
+        }
+
+        assertThat(errors.get()).as("failed operations").isZero();
+        assertThat(delivered.get()).as("delivered messages").isEqualTo(expected);
+    }
+
+    private List<Pair> seed() {
+        // One hash for everyone: seeding shouldn't cost PAIRS * 2 BCrypt rounds
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<Pair> pairs = new ArrayList<>(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            User seller = userRepository.save(newUser("seller" + i, hash));
+            User buyer = userRepository.save(newUser("buyer" + i, hash));
+            Product product = new Product();
+            product.setTitle("Load test item " + i);
+            product.setDescription("Seeded by ChatLoadTest");
+            product.setPrice(10.0 + i);
+            product.setStatus("AVAILABLE");
+            product.setSeller(seller);
+            product = productRepository.save(product);
+            pairs.add(new Pair(buyer, seller, product.getId()));
+        }
+        return pairs;
+    }
+
+    private static User newUser(String username, String hash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@load.test");
+        user.setPassword(hash);
+        user.setRole("USER");
+        return user;
+    }
+
+    private void runPair(Pair pair) {
+        StompSession sellerSession = null;
+        StompSession buyerSession = null;
+        try {
+            String sellerToken = login(pair.seller());
+            String buyerToken = login(pair.buyer());
+
+            timed(catalog, () -> get("/api/products?limit=20", buyerToken));
+            String room = timed(createOrGet, () -> post("/api/chatrooms/create-or-get", buyerToken,
+                    "{\"productId\":" + pair.productId() + ",\"buyerId\":" + pair.buyer().getId()
+                            + ",\"sellerId\":" + pair.seller().getId() + "}"));
+            long chatRoomId = Long.parseLong(extract(CHAT_ROOM_ID, room));
+
+            // Seller listens on the room topic and measures send -> receive lag
+            CountDownLatch subscribed = new CountDownLatch(1);
+            CountDownLatch received = new CountDownLatch(MESSAGES_PER_PAIR);
+            sellerSession = connect(sellerToken);
+            sellerSession.subscribe("/topic/chatroom/" + chatRoomId, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    long now = System.nanoTime();
+                    String json = new String((byte[]) payload, StandardCharsets.UTF_8);
+                    Matcher stamp = LAG_STAMP.matcher(json);
+                    if (stamp.find()) {
+                        deliveryLag.record(now - Long.parseLong(stamp.group(1)));
+                        delivered.incrementAndGet();
+                        received.countDown();
+                    } else if (READ_RECEIPT.matcher(json).find()) {
+                        subscribed.countDown();
+                    }
+                }
+            });
+            sellerSession.send(jsonHeaders("/app/chat.addUser"), json(chatRoomId, pair.seller(), "JOIN", ""));
+            // The subscription is live once the seller sees a read receipt echoed back; JOIN
+            // can't be used because it is only broadcast for the first join
+            for (int attempt = 0; attempt < 50 && subscribed.getCount() > 0; attempt++) {
+                sellerSession.send(jsonHeaders("/app/chat.read"), readReceipt(chatRoomId, pair.seller()));
+                subscribed.await(200, TimeUnit.MILLISECONDS);
+            }
+            if (subscribed.getCount() > 0) {
+                throw new IllegalStateException("Subscription to room " + chatRoomId + " never became active");
+            }
+
+            buyerSession = connect(buyerToken);
+            for (int i = 0; i < MESSAGES_PER_PAIR; i++) {
+                buyerSession.send(jsonHeaders("/app/chat.sendMessage"),
+                        json(chatRoomId, pair.buyer(), "CHAT", "lt:" + System.nanoTime()));
+                Thread.sleep(THINK_TIME_MS);
+            }
+            if (!received.await(DELIVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Room " + chatRoomId + " received "
+                        + (MESSAGES_PER_PAIR - received.getCount()) + "/" + MESSAGES_PER_PAIR);
+            }
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            System.err.println("Pair " + pair.buyer().getUsername() + " failed: " + e);
+        } finally {
+            if (buyerSession != null) {
+                buyerSession.disconnect();
+            }
+            if (sellerSession != null) {
+                sellerSession.disconnect();
+            }
+        }
+    }
+
+    private String login(User user) throws Exception {
+        String body = timed(login, () -> post("/api/auth/login", null,
+                "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"));
+        return extract(TOKEN, body);
+    }
+
+    private StompSession connect(String token) throws Exception {
+        WebSocketHttpHeaders handshake = new WebSocketHttpHeaders();
+        handshake.add("Authorization", "Bearer " + token);
+        // Raw WebSocket transport of the SockJS endpoint
+        return stompClient.connectAsync("ws://localhost:" + port + "/ws/websocket", handshake,
+                        new StompHeaders(), new StompSessionHandlerAdapter() { })
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private static StompHeaders jsonHeaders(String destination) {
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination(destination);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return headers;
+    }
+
+    private static byte[] json(long chatRoomId, User sender, String type, String content) {
+        return ("{\"chatRoomId\":" + chatRoomId + ",\"senderId\":" + sender.getId()
+                + ",\"senderUsername\":\"" + sender.getUsername() + "\",\"type\":\"" + type
+                + "\",\"content\":\"" + content + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readReceipt(long chatRoomId, User reader) {
+        return ("{\"chatRoomId\":" + chatRoomId + ",\"userId\":" + reader.getId()
+                + ",\"lastReadMessageId\":0,\"lastReadSentAt\":\"1970-01-01T00:00:00\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String get(String path, String token) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token).GET());
+    }
+
+    private String post(String path, String token, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return send(request);
+    }
+
+    private String send(HttpRequest.Builder request) throws Exception {
+        HttpResponse<String> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.uri().getPath() + " -> " + response.statusCode()
+                    + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String extract(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private static <T> T timed(Latencies latencies, Call<T> call) throws Exception {
+        long start = System.nanoTime();
+        T result = call.run();
+        latencies.record(System.nanoTime() - start);
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T run() throws Exception;
+    }
+
+    private record Pair(User buyer, User seller, Long productId) {
+    }
+
+    /**
+     * Raw samples; sorted once at the end for exact percentiles
+     */
+    private static final class Latencies {
+        private final String name;
+        private final List<Long> samples = Collections.synchronizedList(new ArrayList<>());
+
+        Latencies(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos) {
+            samples.add(nanos);
+        }
+
+        int count() {
+            return samples.size();
+        }
+
+        String summary() {
+            List<Long> sorted;
+            synchronized (samples) {
+                sorted = new ArrayList<>(samples);
+            }
+            if (sorted.isEmpty()) {
+                return String.format("%-14s no samples", name);
+            }
+            Collections.sort(sorted);
+            return String.format("%-14s n=%-7d p50=%8.2f ms  p99=%8.2f ms  p999=%8.2f ms  max=%8.2f ms",
+                    name, sorted.size(), millis(sorted, 0.50), millis(sorted, 0.99), millis(sorted, 0.999),
+                    sorted.get(sorted.size() - 1) / 1e6);
+        }
+
+        private static double millis(List<Long> sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+            return sorted.get(Math.max(index, 0)) / 1e6;
+        }
+    }
+}